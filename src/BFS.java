@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/10/03
-    Updated: 2020/10/06
+    Updated: 2026/10/17
     Purpose:
         BFS.java attempts at implementing Breadth First Search for graphs in
         the WeightedAdjacencyList structure.
@@ -11,116 +11,413 @@
         first argument. The text file should be a file only containing
         bidirectional edges where the nodes use string identifiers.
 
-        Requires `WeightedAdjacencyList.java` and `TestDataParsing.java` to
-        function.
+        Graphs in the IndexedGraph structure, such as CompressedGraph, are
+        searched through the overload taking an IndexedGraph. It switches
+        between top-down and bottom-up levels depending on the size of the
+        frontier, and keeps nothing but a parent array and two bitsets.
+
+        IntWeightedGraphs are searched through the overload taking a
+        SearchContext and an int array for the path, which allocates nothing.
+
+        Requires `WeightedAdjacencyList.java`, `IndexedGraph.java`,
+        `IntWeightedGraph.java`, `SearchContext.java`, and `GraphLoader.java`
+        to function.
  */
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 public class BFS
 {
+    // a top-down search switches to bottom-up once the edges leaving the
+    // frontier are more than 1 / ALPHA of the edges left to explore, and
+    // back once the frontier holds less than 1 / BETA of all nodes
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
     // searches for the given node `to` from given node `from` in
-    // the given graph `graph`
+    // the given graph `graph`. the nodes are marked by their `Node.index`,
+    // so no key is hashed or compared during the search
     public static <Key> LinkedList<Key> search(
             WeightedAdjacencyList<Key> graph,
             Key from,
             Key to)
     {
+        Node<Key> start = graph.node(from);
+        Node<Key> end = graph.node(to);
+
         // if the graph does not contain either nodes, there can be no path so
         // nothing
-        if (!graph.contains(from) || !graph.contains(to))
+        if (start == null || end == null)
+        {
+            return null;
+        }
+
+        // the index of the node each node was discovered from, or -1 for the
+        // nodes not discovered yet. the starting node is its own parent
+        int[] parent = new int[graph.nodes()];
+        Arrays.fill(parent, -1);
+        parent[start.index] = start.index;
+
+        // the discovered nodes, the ones from `head` on are not searched yet
+        int[] queue = new int[graph.nodes()];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = start.index;
+
+        while (head < tail && parent[end.index] < 0)
+        {
+            Node<Key> node = graph.nodeAt(queue[head++]);
+
+            for (KeyValuePair<Node<Key>, Integer> nodeAndWeight
+                        : node.adjacent)
+            {
+                int adjacent = nodeAndWeight.Key.index;
+
+                if (parent[adjacent] < 0)
+                {
+                    // set node as marked, with the current node as parent
+                    parent[adjacent] = node.index;
+
+                    // enqueue node
+                    queue[tail++] = adjacent;
+                }
+            }
+        }
+
+        if (parent[end.index] < 0)
         {
             return null;
         }
 
-        // otherwise we get the starting node and
-        return search(graph.node(from), to);
+        // follow the parents back to the start, turning them into keys
+        LinkedList<Key> path =
+                new LinkedList<>();
+
+        int current = end.index;
+        path.addFirst(to);
+
+        while (current != start.index)
+        {
+            current = parent[current];
+            path.addFirst(graph.nodeAt(current).identifier);
+        }
+
+        return path;
     }
 
-    // searches for the given node `to` from given node `from`
+    // searches for the given node `to` from given node `from`. only the node
+    // each node was discovered from is stored, the path is built once the end
+    // node is found. without the graph the size of the search is not known,
+    // so the nodes are marked by their keys
     public static <Key> LinkedList<Key> search(
             Node<Key> from,
             Key to)
     {
-        // create a set containing the marked nodes
-        HashSet<Key> marked =
-                new HashSet<>();
-
-        marked.add(from.identifier);
+        // the node each discovered node was discovered from, which also marks
+        // the node. the starting node has no parent
+        HashMap<Key, Node<Key>> parents =
+                new HashMap<>();
 
-        // all the paths built up
-        Queue<LinkedList<Node<Key>>> toSearch =
-                new LinkedList<>();
+        parents.put(from.identifier, null);
 
-        // the initial path; the starting node
-        LinkedList<Node<Key>> firstPath =
-                new LinkedList<>();
-        firstPath.add(from);
+        // the discovered nodes that have not been searched yet
+        Queue<Node<Key>> toSearch =
+                new ArrayDeque<>();
 
-        toSearch.add(firstPath);
+        toSearch.add(from);
 
-        // check all paths within the path queue until the correct one is found
-        // otherwise return null
+        // search the nodes in the order they were discovered until the end
+        // node is found, otherwise return null
         while (!toSearch.isEmpty())
         {
-            // get the first path in the queue
-            LinkedList<Node<Key>> path =
+            Node<Key> node =
                     toSearch.remove();
 
-            // last node of the list, on path to parent
-            Node<Key> endNode =
-                    path.getLast();
-
-            // if a path containing the end node was found, return said path
-            // but only with the keys (the Node<Key> structure is not relevant
-            // to the user)
-            if (endNode.identifier.equals(to))
+            // if the end node was found, follow the parents back to the start
+            // and return the keys (the Node<Key> structure is not relevant to
+            // the user)
+            if (node.identifier.equals(to))
             {
                 LinkedList<Key> identifierPath =
                         new LinkedList<>();
 
-                for (Node<Key> node : path)
+                for (Node<Key> current = node; current != null;
+                     current = parents.get(current.identifier))
                 {
-                    identifierPath.addLast(node.identifier);
+                    identifierPath.addFirst(current.identifier);
                 }
 
                 return identifierPath;
             }
 
             for (KeyValuePair<Node<Key>, Integer> nodeAndWeight
-                        : endNode.adjacent)
+                        : node.adjacent)
+            {
+                if (!parents.containsKey(nodeAndWeight.Key.identifier))
+                {
+                    // set node as marked, with the current node as parent
+                    parents.put(nodeAndWeight.Key.identifier, node);
+
+                    // enqueue node
+                    toSearch.add(nodeAndWeight.Key);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    // searches for the given node `to` from given node `from` in the given
+    // indexed graph `graph`
+    public static <Key> LinkedList<Key> search(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        // if the graph does not contain either nodes, there can be no path so
+        // nothing
+        if (start < 0 || end < 0)
+        {
+            return null;
+        }
+
+        int[] parent = parents(graph, start, end);
+
+        return parent[end] < 0 ? null : path(graph, parent, end);
+    }
+
+    // searches for the given node `to` from given node `from` in the given
+    // int graph `graph`, keeping the queue and parents in `context`. the
+    // path is written to the start of `path`, which must have room for
+    // `graph.nodes()` keys, and its length is returned, or -1 if there is no
+    // path
+    public static int search(
+            IntWeightedGraph graph,
+            int from,
+            int to,
+            SearchContext context,
+            int[] path)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        // if the graph does not contain either nodes, there can be no path
+        if (start < 0 || end < 0)
+        {
+            return -1;
+        }
+
+        context.reset(graph.nodes());
+
+        // the discovered nodes, the ones from `head` on are not searched yet
+        int[] queue = context.queue();
+        int head = 0;
+        int tail = 0;
+
+        context.reach(start, 0, -1);
+        queue[tail++] = start;
+
+        while (head < tail && !context.isReached(end))
+        {
+            int node = queue[head++];
+            int[] targets = graph.targets(node);
+
+            for (int i = 0; i < graph.degree(node); i++)
+            {
+                int adjacent = targets[i];
+
+                if (!context.isReached(adjacent))
+                {
+                    // set node as marked, with the current node as parent
+                    context.reach(adjacent, 0, node);
+
+                    // enqueue node
+                    queue[tail++] = adjacent;
+                }
+            }
+        }
+
+        return context.isReached(end) ? graph.path(context, end, path) : -1;
+    }
+
+    // the breadth first tree from `start`, as the parent of every node. the
+    // parent of `start` is itself and undiscovered nodes have -1. the search
+    // stops once `end` is discovered, a negative `end` discovers all nodes.
+    //
+    // the search goes one level at a time. while the frontier is small it is
+    // searched top-down, from the frontier to the nodes it leads to. once the
+    // edges leaving the frontier outnumber the edges left to explore by far,
+    // it switches to bottom-up, where each undiscovered node looks through
+    // the edges entering it for a parent in the frontier and stops at the
+    // first one. for low diameter graphs most nodes are found in a few large
+    // levels, which bottom-up searches while checking far fewer edges
+    public static int[] parents(
+            IndexedGraph<?> graph,
+            int start,
+            int end)
+    {
+        int nodes = graph.nodes();
+        IndexedGraph<?> reverse = graph.reverse();
+
+        int[] parent = new int[nodes];
+        Arrays.fill(parent, -1);
+        parent[start] = start;
+
+        // the frontier as a list for top-down levels, each level is stored
+        // right after the previous one
+        int[] queue = new int[nodes];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = start;
+
+        // the frontier and the next level as bitsets for bottom-up levels
+        long[] frontier = new long[(nodes + 63) >>> 6];
+        long[] next = new long[frontier.length];
+
+        boolean bottomUp = false;
+
+        int frontierSize = 1;
+        long frontierEdges = degree(graph, start);
+        long unexploredEdges = graph.edges() - frontierEdges;
+
+        while (frontierSize > 0 && (end < 0 || parent[end] < 0))
+        {
+            // switch direction depending on the size of the frontier
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA)
+            {
+                Arrays.fill(frontier, 0);
+                for (int i = head; i < tail; i++)
+                {
+                    frontier[queue[i] >>> 6] |= 1L << queue[i];
+                }
+
+                bottomUp = true;
+            }
+            else if (bottomUp && frontierSize < nodes / BETA)
             {
-                if (!marked.contains(nodeAndWeight.Key.identifier))
+                head = 0;
+                tail = 0;
+                for (int word = 0; word < frontier.length; word++)
                 {
-                    // copy the path to the parent node
-                    LinkedList<Node<Key>> newPath =
-                            new LinkedList<>(path);
+                    for (long bits = frontier[word]; bits != 0;
+                         bits &= bits - 1)
+                    {
+                        queue[tail++] =
+                                (word << 6) + Long.numberOfTrailingZeros(bits);
+                    }
+                }
+
+                bottomUp = false;
+            }
+
+            int levelSize = 0;
+            long levelEdges = 0;
+
+            if (bottomUp)
+            {
+                Arrays.fill(next, 0);
+
+                for (int node = 0; node < nodes; node++)
+                {
+                    if (parent[node] >= 0)
+                    {
+                        continue;
+                    }
+
+                    for (int e = reverse.begin(node); e < reverse.end(node);
+                         e++)
+                    {
+                        int adjacent = reverse.target(e);
+
+                        if ((frontier[adjacent >>> 6] & 1L << adjacent) != 0)
+                        {
+                            parent[node] = adjacent;
+                            next[node >>> 6] |= 1L << node;
+
+                            levelSize++;
+                            levelEdges += degree(graph, node);
+                            break;
+                        }
+                    }
+                }
+
+                long[] swap = frontier;
+                frontier = next;
+                next = swap;
+            }
+            else
+            {
+                int levelEnd = tail;
 
-                    // add the current adjacent
-                    newPath.addLast(nodeAndWeight.Key);
+                for (; head < levelEnd && (end < 0 || parent[end] < 0); head++)
+                {
+                    int node = queue[head];
+
+                    for (int e = graph.begin(node); e < graph.end(node); e++)
+                    {
+                        int adjacent = graph.target(e);
 
-                    // enqueue path
-                    toSearch.add(newPath);
+                        if (parent[adjacent] < 0)
+                        {
+                            parent[adjacent] = node;
+                            queue[tail++] = adjacent;
 
-                    // set node as marked
-                    marked.add(nodeAndWeight.Key.identifier);
+                            levelSize++;
+                            levelEdges += degree(graph, adjacent);
+                        }
+                    }
                 }
+
+                head = levelEnd;
             }
+
+            frontierSize = levelSize;
+            frontierEdges = levelEdges;
+            unexploredEdges -= levelEdges;
         }
 
-        return null;
+        return parent;
     }
 
+    // amount of edges leaving the node
+    private static int degree(IndexedGraph<?> graph, int node)
+    {
+        return graph.end(node) - graph.begin(node);
+    }
 
-    public static void main(String[] args) throws FileNotFoundException
+    // follows the parents from `end` back to the node that is its own parent
+    private static <Key> LinkedList<Key> path(
+            IndexedGraph<Key> graph,
+            int[] parent,
+            int end)
     {
-        Scanner file = new Scanner(new File(args[0]));
+        LinkedList<Key> path =
+                new LinkedList<>();
 
+        int current = end;
+        path.addFirst(graph.key(current));
+
+        while (parent[current] != current)
+        {
+            current = parent[current];
+            path.addFirst(graph.key(current));
+        }
+
+        return path;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
         // create graph from file
         WeightedAdjacencyList<String> graph =
-                TestDataParsing.namedNodesUnidirectional(file);
+                GraphLoader.namedNodesUnidirectional(Path.of(args[0]));
 
         // take input
         Scanner in = new Scanner(System.in);
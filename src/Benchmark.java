@@ -0,0 +1,657 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        Benchmark.java measures the searches and loaders of the project, so
+        that changes can be compared against each other and regressions are
+        caught. Every benchmark runs in FORKS fresh JVMs of its own, so the
+        code the JIT compiled for one benchmark does not slow down another.
+
+        In every fork the operation is first run for WARMUPS iterations that
+        are thrown away, to let the JIT compile it, and then for ITERATIONS
+        measured iterations of ITERATION_TIME each. Each operation is timed
+        on its own, and a sample of the times gives the latency percentiles.
+        The bytes all threads allocated during the measured iterations,
+        including the threads of the common pool that the parallel loaders
+        and searches fork into, are divided by the operations, for the bytes
+        allocated per operation.
+
+        The searches run on `contiguous-usa.dat` and on random Erdos-Renyi
+        graphs of increasing size from GraphGenerator, with every graph
+        structure the search supports, so the structures can be compared
+        side by side. Every loader of TestDataParsing, and its counterpart in
+        GraphLoader, reads the same files.
+    Usage:
+        The first argument is the path to `contiguous-usa.dat`, the optional
+        second argument only runs the benchmarks whose names contain it, and
+        the optional third argument is the amount of forks:
+            java Benchmark contiguous-usa.dat
+            java Benchmark contiguous-usa.dat search/ShortestPath 1
+
+        Every benchmark prints one line with its throughput in operations per
+        second, its latency percentiles in microseconds, and the bytes it
+        allocated per operation. Numbers from the forks are averaged.
+
+        Requires `GraphGenerator.java` and every searcher and loader it
+        benchmarks to function.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.function.ToLongFunction;
+
+public class Benchmark
+{
+    // separate JVMs per benchmark, and iterations per JVM
+    private static final int FORKS = 2;
+    private static final int WARMUPS = 3;
+    private static final int ITERATIONS = 5;
+
+    // the time of every iteration, in nanoseconds
+    private static final long ITERATION_TIME = 1_000_000_000L;
+
+    // the most operation times kept for the percentiles
+    private static final int SAMPLES = 1 << 16;
+
+    // the percentiles reported
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    // the sizes of the random graphs, and their edges per node
+    private static final int[] SIZES = { 1_000, 10_000, 100_000 };
+    private static final int DEGREE = 4;
+
+    // the amount of random queries every search benchmark cycles through
+    private static final int QUERIES = 1024;
+
+    // the results of the operations end up here, so that the JIT can not
+    // remove the operations as having no effect
+    private static volatile long sink;
+
+    // a single operation, given the amount of operations before it. returns
+    // something derived from its result
+    private interface Operation
+    {
+        long run(int i) throws IOException;
+    }
+
+    // prepares an operation, outside of the measured time
+    private interface Fixture
+    {
+        Operation setUp() throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        // a forked JVM runs a single benchmark and reports to its parent
+        if (args[0].equals("--fork"))
+        {
+            fork(args[1], Path.of(args[2]), Path.of(args[3]));
+            return;
+        }
+
+        Path usa = Path.of(args[0]);
+        String filter = args.length > 1 ? args[1] : "";
+        int forks = args.length > 2 ? Integer.parseInt(args[2]) : FORKS;
+
+        // the random graphs are written once and read by every fork
+        Path data = Files.createTempDirectory("benchmark");
+
+        for (int size : SIZES)
+        {
+            writeRandomGraph(data.resolve(size + ".txt"), size, size);
+        }
+
+        System.out.printf(
+                "%-72s %12s %10s %10s %10s %10s %12s\n",
+                "Benchmark", "ops/s", "p50 us", "p90 us", "p99 us",
+                "p99.9 us", "B/op");
+
+        for (String name : benchmarks(usa, data).keySet())
+        {
+            if (!name.contains(filter))
+            {
+                continue;
+            }
+
+            double[] total = new double[PERCENTILES.length + 2];
+
+            for (int i = 0; i < forks; i++)
+            {
+                double[] result = run(name, usa, data);
+
+                for (int j = 0; j < total.length; j++)
+                {
+                    total[j] += result[j] / forks;
+                }
+            }
+
+            System.out.printf("%-72s %12.1f", name, total[0]);
+
+            for (int j = 0; j < PERCENTILES.length; j++)
+            {
+                System.out.printf(" %10.2f", total[j + 1]);
+            }
+
+            System.out.printf(" %12.0f\n", total[total.length - 1]);
+        }
+
+        for (File file : data.toFile().listFiles())
+        {
+            file.delete();
+        }
+
+        Files.delete(data);
+    }
+
+    // runs the benchmark in a new JVM with the same class path and options,
+    // and reads back its throughput, percentiles, and bytes per operation
+    private static double[] run(
+            String name,
+            Path usa,
+            Path data) throws IOException, InterruptedException
+    {
+        List<String> command = new ArrayList<>();
+        command.add(Path
+                .of(System.getProperty("java.home"), "bin", "java")
+                .toString());
+        command.addAll(
+                ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Benchmark.class.getName());
+        command.addAll(
+                List.of("--fork", name, usa.toString(), data.toString()));
+
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        String result = null;
+
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream())))
+        {
+            for (String line = out.readLine(); line != null;
+                 line = out.readLine())
+            {
+                result = line;
+            }
+        }
+
+        if (process.waitFor() != 0 || result == null)
+        {
+            throw new IOException("benchmark " + name + " failed");
+        }
+
+        return Arrays
+                .stream(result.trim().split("\\s+"))
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+    }
+
+    // runs the benchmark in this JVM and prints its numbers on one line
+    private static void fork(String name, Path usa, Path data)
+            throws IOException
+    {
+        Operation operation = benchmarks(usa, data).get(name).setUp();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean)
+                        ManagementFactory.getThreadMXBean();
+
+        // a reservoir of the operation times, every operation of the
+        // measured iterations has the same chance to be in it
+        long[] samples = new long[SAMPLES];
+        Random random = new Random(0);
+
+        int operations = 0;
+        long measured = 0;
+        long measuredTime = 0;
+        long allocated = 0;
+        long result = 0;
+
+        for (int iteration = 0; iteration < WARMUPS + ITERATIONS; iteration++)
+        {
+            boolean measuring = iteration >= WARMUPS;
+
+            long bytes = allocated(threads);
+            long start = System.nanoTime();
+            long now = start;
+
+            while (now - start < ITERATION_TIME)
+            {
+                result += operation.run(operations++);
+
+                long end = System.nanoTime();
+
+                if (measuring)
+                {
+                    if (measured < SAMPLES)
+                    {
+                        samples[(int) measured] = end - now;
+                    }
+                    else
+                    {
+                        // the slot of the operation among all of them so
+                        // far, this one included
+                        long slot =
+                                (long) (random.nextDouble() * (measured + 1));
+
+                        if (slot < SAMPLES)
+                        {
+                            samples[(int) slot] = end - now;
+                        }
+                    }
+
+                    measured++;
+                }
+
+                now = end;
+            }
+
+            if (measuring)
+            {
+                measuredTime += now - start;
+                allocated += allocated(threads) - bytes;
+            }
+        }
+
+        sink = result;
+
+        long[] sorted =
+                Arrays.copyOf(samples, (int) Math.min(measured, SAMPLES));
+        Arrays.sort(sorted);
+
+        StringBuilder line = new StringBuilder();
+        line.append(measured * 1e9 / measuredTime);
+
+        for (double percentile : PERCENTILES)
+        {
+            int index = (int) Math.min(
+                    sorted.length - 1,
+                    Math.ceil(percentile * sorted.length) - 1);
+
+            line.append(' ').append(sorted[Math.max(0, index)] / 1e3);
+        }
+
+        line.append(' ').append((double) allocated / measured);
+
+        System.out.println(line);
+    }
+
+    // the bytes allocated so far by every live thread. the bytes of threads
+    // that end during an iteration are lost, the threads of the common pool
+    // are kept alive between operations that use them
+    private static long allocated(com.sun.management.ThreadMXBean threads)
+    {
+        long total = 0;
+
+        for (long bytes : threads.getThreadAllocatedBytes(
+                threads.getAllThreadIds()))
+        {
+            // -1 for threads that ended after their identifier was read
+            total += Math.max(0, bytes);
+        }
+
+        return total;
+    }
+
+    // every benchmark by name, in the order they are run
+    private static Map<String, Fixture> benchmarks(Path usa, Path data)
+    {
+        Map<String, Fixture> benchmarks = new LinkedHashMap<>();
+
+        searches(benchmarks, "usa", () -> named(usa));
+
+        for (int size : SIZES)
+        {
+            Path file = data.resolve(size + ".txt");
+
+            searches(benchmarks, "random-" + size, () -> numeric(file));
+        }
+
+        loaders(benchmarks, "usa", usa, false);
+
+        for (int size : SIZES)
+        {
+            loaders(
+                    benchmarks,
+                    "random-" + size,
+                    data.resolve(size + ".txt"),
+                    true);
+        }
+
+        return benchmarks;
+    }
+
+    // a graph in every structure, and the queries to search it with
+    private interface Dataset<Key>
+    {
+        WeightedAdjacencyList<Key> graph();
+        CompressedGraph<Key> compressed();
+        IntWeightedGraph integers();
+        List<Key> from();
+        List<Key> to();
+    }
+
+    private interface DatasetLoader<Key>
+    {
+        Dataset<Key> load() throws IOException;
+    }
+
+    // the search benchmarks on the given dataset, for every structure
+    private static <Key> void searches(
+            Map<String, Fixture> benchmarks,
+            String dataset,
+            DatasetLoader<Key> loader)
+    {
+        add(benchmarks, "search/BFS/WeightedAdjacencyList", dataset, () ->
+        {
+            Dataset<Key> d = loader.load();
+            return i -> size(BFS.search(
+                    d.graph(), at(d.from(), i), at(d.to(), i)));
+        });
+        add(benchmarks, "search/BFS/CompressedGraph", dataset, () ->
+        {
+            Dataset<Key> d = loader.load();
+            CompressedGraph<Key> graph = d.compressed();
+            return i -> size(BFS.search(
+                    graph, at(d.from(), i), at(d.to(), i)));
+        });
+        addIntegers(benchmarks, "search/BFS/IntWeightedGraph", dataset,
+                loader, (graph, from, to, context, path) ->
+                        BFS.search(graph, from, to, context, path));
+
+        add(benchmarks, "search/DFS/WeightedAdjacencyList", dataset, () ->
+        {
+            Dataset<Key> d = loader.load();
+            return i -> size(DFS.search(
+                    at(d.from(), i), at(d.to(), i), d.graph()));
+        });
+        add(benchmarks, "search/DFS/CompressedGraph", dataset, () ->
+        {
+            Dataset<Key> d = loader.load();
+            CompressedGraph<Key> graph = d.compressed();
+            return i -> size(DFS.search(
+                    at(d.from(), i), at(d.to(), i), graph));
+        });
+        addIntegers(benchmarks, "search/DFS/IntWeightedGraph", dataset,
+                loader, (graph, from, to, context, path) ->
+                        DFS.search(from, to, graph, context, path));
+
+        add(benchmarks, "search/ShortestPath/WeightedAdjacencyList", dataset,
+                () ->
+                {
+                    Dataset<Key> d = loader.load();
+                    return i -> size(ShortestPath.search(
+                            d.graph(), at(d.from(), i), at(d.to(), i)));
+                });
+        add(benchmarks, "search/ShortestPath/CompressedGraph", dataset, () ->
+        {
+            Dataset<Key> d = loader.load();
+            CompressedGraph<Key> graph = d.compressed();
+            return i -> size(ShortestPath.search(
+                    graph, at(d.from(), i), at(d.to(), i)));
+        });
+        add(benchmarks, "search/ShortestPath.bidirectional/CompressedGraph",
+                dataset, () ->
+                {
+                    Dataset<Key> d = loader.load();
+                    CompressedGraph<Key> graph = d.compressed();
+                    return i -> size(ShortestPath.bidirectionalSearch(
+                            graph, at(d.from(), i), at(d.to(), i)));
+                });
+        addIntegers(benchmarks, "search/ShortestPath/IntWeightedGraph",
+                dataset, loader, (graph, from, to, context, path) ->
+                        ShortestPath.search(graph, from, to, context, path));
+
+        add(benchmarks, "search/PathExists/WeightedAdjacencyList", dataset,
+                () ->
+                {
+                    Dataset<Key> d = loader.load();
+                    return i -> PathExists.pathExists(
+                            d.graph(), at(d.from(), i), at(d.to(), i))
+                            ? 1 : 0;
+                });
+        addIntegers(benchmarks, "search/PathExists/IntWeightedGraph",
+                dataset, loader, (graph, from, to, context, path) ->
+                        PathExists.pathExists(graph, from, to, context)
+                                ? 1 : 0);
+    }
+
+    // a search of an IntWeightedGraph, which returns its path in `path`
+    private interface IntSearch
+    {
+        int search(
+                IntWeightedGraph graph,
+                int from,
+                int to,
+                SearchContext context,
+                int[] path);
+    }
+
+    // adds a benchmark of an IntWeightedGraph search, only for datasets
+    // with integer keys
+    private static <Key> void addIntegers(
+            Map<String, Fixture> benchmarks,
+            String name,
+            String dataset,
+            DatasetLoader<Key> loader,
+            IntSearch search)
+    {
+        if (dataset.equals("usa"))
+        {
+            return;
+        }
+
+        add(benchmarks, name, dataset, () ->
+        {
+            Dataset<Key> d = loader.load();
+            IntWeightedGraph graph = d.integers();
+
+            int[] from = new int[QUERIES];
+            int[] to = new int[QUERIES];
+
+            for (int i = 0; i < QUERIES; i++)
+            {
+                from[i] = (Integer) d.from().get(i);
+                to[i] = (Integer) d.to().get(i);
+            }
+
+            SearchContext context = new SearchContext(graph.nodes());
+            int[] path = new int[graph.nodes()];
+
+            return i -> search.search(
+                    graph,
+                    from[i % QUERIES],
+                    to[i % QUERIES],
+                    context,
+                    path);
+        });
+    }
+
+    // the loader benchmarks on the given file, which is in the numeric
+    // format if `numeric` is set and in the named format otherwise
+    private static void loaders(
+            Map<String, Fixture> benchmarks,
+            String dataset,
+            Path file,
+            boolean numeric)
+    {
+        if (numeric)
+        {
+            add(benchmarks, "load/TestDataParsing.numericWeightedNodes",
+                    dataset, () -> parse(
+                            file,
+                            data -> TestDataParsing
+                                    .numericWeightedNodes(data, -1)
+                                    .edges()));
+            add(benchmarks,
+                    "load/TestDataParsing.numericWeightedNodesCompressed",
+                    dataset, () -> parse(
+                            file,
+                            data -> TestDataParsing
+                                    .numericWeightedNodesCompressed(data, -1)
+                                    .edges()));
+            add(benchmarks, "load/GraphLoader.numericWeightedNodes",
+                    dataset, () -> i -> GraphLoader
+                            .numericWeightedNodes(file, -1)
+                            .edges());
+            add(benchmarks, "load/GraphLoader.numericWeightedNodesInt",
+                    dataset, () -> i -> GraphLoader
+                            .numericWeightedNodesInt(file, -1)
+                            .edges());
+            add(benchmarks,
+                    "load/ParallelGraphLoader.numericWeightedNodesCompressed",
+                    dataset, () -> i -> ParallelGraphLoader
+                            .numericWeightedNodesCompressed(file, -1)
+                            .edges());
+            return;
+        }
+
+        add(benchmarks, "load/TestDataParsing.namedNodesBidirectional",
+                dataset, () -> parse(
+                        file,
+                        data -> TestDataParsing
+                                .namedNodesBidirectional(data)
+                                .edges()));
+        add(benchmarks, "load/TestDataParsing.namedNodesUnidirectional",
+                dataset, () -> parse(
+                        file,
+                        data -> TestDataParsing
+                                .namedNodesUnidirectional(data)
+                                .edges()));
+        add(benchmarks,
+                "load/TestDataParsing.namedNodesBidirectionalCompressed",
+                dataset, () -> parse(
+                        file,
+                        data -> TestDataParsing
+                                .namedNodesBidirectionalCompressed(data)
+                                .edges()));
+        add(benchmarks,
+                "load/TestDataParsing.namedNodesUnidirectionalCompressed",
+                dataset, () -> parse(
+                        file,
+                        data -> TestDataParsing
+                                .namedNodesUnidirectionalCompressed(data)
+                                .edges()));
+        add(benchmarks, "load/GraphLoader.namedNodesBidirectional",
+                dataset, () -> i -> GraphLoader
+                        .namedNodesBidirectional(file)
+                        .edges());
+        add(benchmarks, "load/GraphLoader.namedNodesUnidirectional",
+                dataset, () -> i -> GraphLoader
+                        .namedNodesUnidirectional(file)
+                        .edges());
+    }
+
+    private static void add(
+            Map<String, Fixture> benchmarks,
+            String name,
+            String dataset,
+            Fixture fixture)
+    {
+        benchmarks.put(name + "/" + dataset, fixture);
+    }
+
+    // `contiguous-usa.dat` in every structure that takes string keys
+    private static Dataset<String> named(Path file) throws IOException
+    {
+        WeightedAdjacencyList<String> graph =
+                GraphLoader.namedNodesBidirectional(file);
+
+        return dataset(graph, null);
+    }
+
+    // a random graph in every structure
+    private static Dataset<Integer> numeric(Path file) throws IOException
+    {
+        WeightedAdjacencyList<Integer> graph =
+                GraphLoader.numericWeightedNodes(file, -1);
+
+        return dataset(graph, GraphLoader.numericWeightedNodesInt(file, -1));
+    }
+
+    // picks QUERIES random pairs of nodes of the graph
+    private static <Key> Dataset<Key> dataset(
+            WeightedAdjacencyList<Key> graph,
+            IntWeightedGraph integers)
+    {
+        CompressedGraph<Key> compressed = CompressedGraph.from(graph);
+
+        List<Key> from = new ArrayList<>();
+        List<Key> to = new ArrayList<>();
+        Random random = new Random(QUERIES);
+
+        for (int i = 0; i < QUERIES; i++)
+        {
+            from.add(graph.nodeAt(random.nextInt(graph.nodes())).identifier);
+            to.add(graph.nodeAt(random.nextInt(graph.nodes())).identifier);
+        }
+
+        return new Dataset<>()
+        {
+            @Override
+            public WeightedAdjacencyList<Key> graph() { return graph; }
+
+            @Override
+            public CompressedGraph<Key> compressed() { return compressed; }
+
+            @Override
+            public IntWeightedGraph integers() { return integers; }
+
+            @Override
+            public List<Key> from() { return from; }
+
+            @Override
+            public List<Key> to() { return to; }
+        };
+    }
+
+    // writes a random graph in the numeric format, with DEGREE edges per
+    // node in both directions, seeded so that every run gets the same graph
+    private static void writeRandomGraph(Path file, int nodes, long seed)
+            throws IOException
+    {
+        GraphGenerator.writeText(
+                GraphGenerator.erdosRenyi(nodes, (long) nodes * DEGREE / 2),
+                seed,
+                file);
+    }
+
+    private static <Key> Key at(List<Key> queries, int i)
+    {
+        return queries.get(i % QUERIES);
+    }
+
+    private static long size(List<?> path)
+    {
+        return path == null ? -1 : path.size();
+    }
+
+    // an operation parsing the file with a Scanner, which is closed after
+    // every parse
+    private static Operation parse(Path file, ToLongFunction<Scanner> parser)
+    {
+        return i ->
+        {
+            try (Scanner data = new Scanner(file))
+            {
+                return parser.applyAsLong(data);
+            }
+        };
+    }
+}
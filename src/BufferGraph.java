@@ -0,0 +1,118 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        BufferGraph.java is a graph in the compressed sparse row format, like
+        CompressedGraph, whose arrays are IntBuffers instead of Java arrays.
+        The buffers can be memory-mapped from a file or live outside the
+        heap, so the graph can be searched without ever being copied into
+        the heap.
+
+        The keys are looked up through a pair of functions rather than a map,
+        so that they can be read from the buffers as well. The graph holds
+        both directions, the reverse is another BufferGraph over the buffers
+        of the reversed edges, so nothing has to be built when it is asked
+        for.
+    Usage:
+        BufferGraphs are usually opened from a file with `GraphSnapshot.open`,
+        and then searched like any other IndexedGraph:
+            BufferGraph<Integer> graph =
+                    GraphSnapshot.open(path, Integer.class);
+            ShortestPath.search(graph, from, to);
+
+        Requires `IndexedGraph.java` to function.
+ */
+
+import java.nio.IntBuffer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+public class BufferGraph<Key> implements IndexedGraph<Key>
+{
+    // edges of node i are in the range offsets[i] to offsets[i + 1]
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+
+    // key to dense identifier, -1 if absent, and dense identifier to key
+    private final ToIntFunction<Key> ids;
+    private final IntFunction<Key> keys;
+
+    private final int nodes;
+    private final BufferGraph<Key> reverse;
+
+    // a graph of the given edges and reversed edges, which must describe the
+    // same graph, with the keys found through `ids` and `keys`
+    public BufferGraph(
+            IntBuffer offsets,
+            IntBuffer targets,
+            IntBuffer weights,
+            IntBuffer reverseOffsets,
+            IntBuffer reverseTargets,
+            IntBuffer reverseWeights,
+            ToIntFunction<Key> ids,
+            IntFunction<Key> keys)
+    {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.ids = ids;
+        this.keys = keys;
+        this.nodes = offsets.limit() - 1;
+        this.reverse = new BufferGraph<>(
+                reverseOffsets,
+                reverseTargets,
+                reverseWeights,
+                this);
+    }
+
+    // the reverse of `reverse`
+    private BufferGraph(
+            IntBuffer offsets,
+            IntBuffer targets,
+            IntBuffer weights,
+            BufferGraph<Key> reverse)
+    {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.ids = reverse.ids;
+        this.keys = reverse.keys;
+        this.nodes = reverse.nodes;
+        this.reverse = reverse;
+    }
+
+    @Override
+    public int nodes() { return nodes; }
+
+    @Override
+    public int edges() { return offsets.get(nodes); }
+
+    @Override
+    public int id(Key key) { return ids.applyAsInt(key); }
+
+    @Override
+    public Key key(int id) { return keys.apply(id); }
+
+    @Override
+    public int begin(int node) { return offsets.get(node); }
+
+    @Override
+    public int end(int node) { return offsets.get(node + 1); }
+
+    @Override
+    public int target(int edge) { return targets.get(edge); }
+
+    @Override
+    public int weight(int edge) { return weights.get(edge); }
+
+    @Override
+    public BufferGraph<Key> reverse() { return reverse; }
+
+    // checks if the specified node is in the graph
+    public boolean contains(Key node)
+    {
+        return id(node) >= 0;
+    }
+}
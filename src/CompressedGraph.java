@@ -0,0 +1,333 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        CompressedGraph.java is an immutable graph in the compressed sparse row
+        (CSR) format. Nodes are given dense identifiers and the edges leaving
+        node `i` are stored in the range offsets[i] to offsets[i + 1] of the
+        `targets` and `weights` arrays, so scanning the neighbours of a node is
+        a scan over two primitive arrays.
+
+        The reverse graph, needed by searches that go backwards from the goal,
+        is built once on first use and then shared.
+    Usage:
+        Freeze an existing graph with `CompressedGraph.from(graph)` or build one
+        directly with a `CompressedGraph.Builder`, which is what the compressed
+        loaders in `TestDataParsing.java` and `GraphLoader.java` do.
+
+        Requires `IndexedGraph.java`, `KeyDictionary.java`, and
+        `WeightedAdjacencyList.java` to function.
+ */
+
+import java.util.Arrays;
+
+public class CompressedGraph<Key> implements IndexedGraph<Key>
+{
+    // edges of node i are in the range offsets[i] to offsets[i + 1]
+    public final int[] offsets;
+    public final int[] targets;
+    public final int[] weights;
+
+    // dense identifier to key and key to dense identifier, shared with the
+    // reverse graph
+    private final KeyDictionary<Key> keys;
+
+    // the graph with all edges turned around, built the first time it is
+    // asked for
+    private volatile CompressedGraph<Key> reverse;
+
+    private CompressedGraph(
+            KeyDictionary<Key> keys,
+            int[] offsets,
+            int[] targets,
+            int[] weights)
+    {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // freezes the given graph, the nodes keep their `Node.index` as their
+    // identifier and the edges of every node keep the order they have in the
+    // adjacency list
+    public static <Key> CompressedGraph<Key> from(
+            WeightedAdjacencyList<Key> graph)
+    {
+        int nodes = graph.nodes();
+
+        // every node keeps its `Node.index` as its dense identifier
+        KeyDictionary<Key> keys = new KeyDictionary<>(nodes);
+
+        for (int id = 0; id < nodes; id++)
+        {
+            keys.add(graph.nodeAt(id).identifier);
+        }
+
+        int[] offsets = new int[nodes + 1];
+        int[] targets = new int[graph.edges()];
+        int[] weights = new int[graph.edges()];
+
+        // copy each adjacency list into its range
+        int edge = 0;
+        for (int i = 0; i < nodes; i++)
+        {
+            offsets[i] = edge;
+
+            for (KeyValuePair<Node<Key>, Integer> nodeAndWeight
+                    : graph.nodeAt(i).adjacent)
+            {
+                targets[edge] = nodeAndWeight.Key.index;
+                weights[edge] = nodeAndWeight.Value;
+                edge++;
+            }
+        }
+        offsets[nodes] = edge;
+
+        return new CompressedGraph<>(keys, offsets, targets, weights);
+    }
+
+    @Override
+    public int nodes() { return offsets.length - 1; }
+
+    @Override
+    public int edges() { return offsets[offsets.length - 1]; }
+
+    @Override
+    public int id(Key key) { return keys.id(key); }
+
+    @Override
+    public Key key(int id) { return keys.key(id); }
+
+    @Override
+    public int begin(int node) { return offsets[node]; }
+
+    @Override
+    public int end(int node) { return offsets[node + 1]; }
+
+    @Override
+    public int target(int edge) { return targets[edge]; }
+
+    @Override
+    public int weight(int edge) { return weights[edge]; }
+
+    @Override
+    public CompressedGraph<Key> reverse()
+    {
+        CompressedGraph<Key> result = reverse;
+
+        if (result == null)
+        {
+            synchronized (this)
+            {
+                if (reverse == null)
+                {
+                    reverse = transpose();
+                }
+
+                result = reverse;
+            }
+        }
+
+        return result;
+    }
+
+    // checks if the specified node is contained within the graph
+    public boolean contains(Key node)
+    {
+        return keys.contains(node);
+    }
+
+    // builds the reverse graph with a counting sort on the heads of the edges.
+    // edges entering a node keep the order of their tails
+    private CompressedGraph<Key> transpose()
+    {
+        int nodes = nodes();
+
+        int[] reverseOffsets = new int[nodes + 1];
+
+        for (int i = 0; i < edges(); i++)
+        {
+            reverseOffsets[targets[i] + 1]++;
+        }
+
+        for (int i = 0; i < nodes; i++)
+        {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+
+        int[] reverseTargets = new int[edges()];
+        int[] reverseWeights = new int[edges()];
+
+        int[] next = Arrays.copyOf(reverseOffsets, nodes);
+
+        for (int tail = 0; tail < nodes; tail++)
+        {
+            for (int e = offsets[tail]; e < offsets[tail + 1]; e++)
+            {
+                int position = next[targets[e]]++;
+
+                reverseTargets[position] = tail;
+                reverseWeights[position] = weights[e];
+            }
+        }
+
+        CompressedGraph<Key> result =
+                new CompressedGraph<>(
+                        keys,
+                        reverseOffsets,
+                        reverseTargets,
+                        reverseWeights);
+
+        result.reverse = this;
+
+        return result;
+    }
+
+    // collects nodes and edges in primitive arrays and sorts them into the
+    // compressed format once all of them are known
+    public static class Builder<Key>
+    {
+        private final KeyDictionary<Key> keys;
+
+        // the edges in insertion order
+        private int[] tails;
+        private int[] heads;
+        private int[] weights;
+        private int edges;
+
+        public Builder()
+        {
+            this(16, 16);
+        }
+
+        // pre-sizes the builder for the expected amount of nodes and edges
+        public Builder(int expectedNodes, int expectedEdges)
+        {
+            keys = new KeyDictionary<>(expectedNodes);
+
+            tails = new int[Math.max(16, expectedEdges)];
+            heads = new int[tails.length];
+            weights = new int[tails.length];
+        }
+
+        public int nodes() { return keys.size(); }
+        public int edges() { return edges; }
+
+        // checks if the specified node has been added
+        public boolean contains(Key node)
+        {
+            return keys.contains(node);
+        }
+
+        // adds the node if it is not already added and returns its dense
+        // identifier
+        public int addNode(Key node)
+        {
+            return keys.add(node);
+        }
+
+        // adds a unidirectional edge from node a to node b, with the given
+        // weight. nodes that have not been added yet are added
+        public void addEdge(
+                Key a,
+                Key b,
+                int weight)
+        {
+            addEdgeBetween(addNode(a), addNode(b), weight);
+        }
+
+        // adds a unidirectional edge between the nodes with the given dense
+        // identifiers, as returned by `addNode`
+        public void addEdgeBetween(
+                int tail,
+                int head,
+                int weight)
+        {
+            if (edges == tails.length)
+            {
+                int capacity = tails.length * 2;
+
+                tails = Arrays.copyOf(tails, capacity);
+                heads = Arrays.copyOf(heads, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+
+            tails[edges] = tail;
+            heads[edges] = head;
+            weights[edges] = weight;
+            edges++;
+        }
+
+        // adds a unidirectional edge from node a to node b, with no weight
+        public void addEdge(
+                Key a,
+                Key b)
+        {
+            addEdge(a, b, 0);
+        }
+
+        // adds a bidirectional edge between A and B, with the weights from A
+        // to B and B to A, respectively
+        public void addBiEdge(
+                Key a,
+                Key b,
+                int weightAB,
+                int weightBA)
+        {
+            addEdge(a, b, weightAB);
+            addEdge(b, a, weightBA);
+        }
+
+        // adds a bidirectional edge between A and B, with no weights in
+        // between
+        public void addBiEdge(
+                Key a,
+                Key b)
+        {
+            addBiEdge(a, b, 0, 0);
+        }
+
+        // sorts the edges by tail with a counting sort, which keeps the
+        // insertion order of the edges of every node
+        public CompressedGraph<Key> build()
+        {
+            int nodes = keys.size();
+
+            int[] offsets = new int[nodes + 1];
+
+            // count the edges of each node, shifted one step so that the
+            // prefix sum gives the start of every range
+            for (int i = 0; i < edges; i++)
+            {
+                offsets[tails[i] + 1]++;
+            }
+
+            for (int i = 0; i < nodes; i++)
+            {
+                offsets[i + 1] += offsets[i];
+            }
+
+            int[] sortedTargets = new int[edges];
+            int[] sortedWeights = new int[edges];
+
+            // next free position within the range of each node
+            int[] next = Arrays.copyOf(offsets, nodes);
+
+            for (int i = 0; i < edges; i++)
+            {
+                int position = next[tails[i]]++;
+
+                sortedTargets[position] = heads[i];
+                sortedWeights[position] = weights[i];
+            }
+
+            return new CompressedGraph<>(
+                    keys.copy(),
+                    offsets,
+                    sortedTargets,
+                    sortedWeights);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        ConnectedComponents.java labels every node of an undirected graph with
+        the connected component it belongs to, so that checking if a path
+        exists between two nodes is a comparison of two labels.
+
+        The labels are found with union-find over the edges of the graph. The
+        index remembers the version of the graph it was built for and is
+        built again the first time it is used after nodes or edges have been
+        added to the graph.
+    Usage:
+        Create an index for an undirected graph, one where every edge was
+        added through `addBiEdge`, and ask it about pairs of nodes:
+            ConnectedComponents<Key> index = new ConnectedComponents<>(graph);
+            index.connected(a, b);
+
+        Requires `WeightedAdjacencyList.java` to function.
+ */
+
+public class ConnectedComponents<Key>
+{
+    private final WeightedAdjacencyList<Key> graph;
+
+    // the labels and the version of the graph they were built for, replaced
+    // as a whole so readers always see a matching pair
+    private volatile Labels labels;
+
+    public ConnectedComponents(WeightedAdjacencyList<Key> graph)
+    {
+        this.graph = graph;
+        this.labels = new Labels(graph);
+    }
+
+    // checks if there is a path between the two nodes, false if either is not
+    // in the graph
+    public boolean connected(Key a, Key b)
+    {
+        Node<Key> nodeA = graph.node(a);
+        Node<Key> nodeB = graph.node(b);
+
+        if (nodeA == null || nodeB == null)
+        {
+            return false;
+        }
+
+        int[] component = current().component;
+
+        return component[nodeA.index] == component[nodeB.index];
+    }
+
+    // the label of the component of the node, equal for nodes of the same
+    // component, or -1 if the node is not in the graph
+    public int component(Key node)
+    {
+        Node<Key> reference = graph.node(node);
+
+        return reference == null ? -1 : current().component[reference.index];
+    }
+
+    // amount of connected components in the graph
+    public int components()
+    {
+        return current().components;
+    }
+
+    // the labels for the current version of the graph, built again if the
+    // graph has changed
+    private Labels current()
+    {
+        Labels current = labels;
+
+        if (current.version != graph.version())
+        {
+            synchronized (this)
+            {
+                if (labels.version != graph.version())
+                {
+                    labels = new Labels(graph);
+                }
+
+                current = labels;
+            }
+        }
+
+        return current;
+    }
+
+    // the component of every node, by `Node.index`
+    private static class Labels
+    {
+        private final int version;
+        private final int[] component;
+        private final int components;
+
+        <Key> Labels(WeightedAdjacencyList<Key> graph)
+        {
+            version = graph.version();
+
+            int nodes = graph.nodes();
+
+            // every node starts as a tree of its own
+            int[] parent = new int[nodes];
+            int[] size = new int[nodes];
+
+            for (int i = 0; i < nodes; i++)
+            {
+                parent[i] = i;
+                size[i] = 1;
+            }
+
+            int count = nodes;
+
+            for (int i = 0; i < nodes; i++)
+            {
+                for (KeyValuePair<Node<Key>, Integer> nodeAndWeight
+                        : graph.nodeAt(i).adjacent)
+                {
+                    int a = find(parent, i);
+                    int b = find(parent, nodeAndWeight.Key.index);
+
+                    if (a == b)
+                    {
+                        continue;
+                    }
+
+                    // hang the smaller tree below the larger one, which keeps
+                    // the trees shallow
+                    if (size[a] < size[b])
+                    {
+                        int swap = a;
+                        a = b;
+                        b = swap;
+                    }
+
+                    parent[b] = a;
+                    size[a] += size[b];
+                    count--;
+                }
+            }
+
+            // the root of the tree of each node is its label
+            for (int i = 0; i < nodes; i++)
+            {
+                parent[i] = find(parent, i);
+            }
+
+            component = parent;
+            components = count;
+        }
+
+        // the root of the tree of the node, pointing every node on the way
+        // to its grandparent so later finds take fewer steps
+        private static int find(int[] parent, int node)
+        {
+            while (parent[node] != node)
+            {
+                parent[node] = parent[parent[node]];
+                node = parent[node];
+            }
+
+            return node;
+        }
+    }
+}
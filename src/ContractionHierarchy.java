@@ -0,0 +1,755 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        ContractionHierarchy.java preprocesses a graph into a contraction
+        hierarchy, which answers shortest path queries while only visiting a
+        tiny part of the graph.
+
+        During preprocessing the nodes are removed ("contracted") one at a
+        time, least important first. Whenever the removal of node v breaks a
+        shortest path u -> v -> w, a shortcut edge u -> w is added, remembering
+        v as its middle node. Afterwards every node has a rank, its position in
+        the contraction order, and the shortest path between any two nodes can
+        be found as a path that first only goes up in rank and then only down.
+
+        A query is therefore a bidirectional Dijkstra where the forward search
+        from the start only follows edges up in rank and the backward search
+        from the goal only follows (reversed) edges up in rank. The shortcuts
+        on the found path are then unpacked into the original edges.
+    Usage:
+        Preprocess once and query any amount of times, from any amount of
+        threads:
+            ContractionHierarchy<Key> hierarchy =
+                    ContractionHierarchy.build(graph);
+            LinkedList<Key> path = hierarchy.search(from, to);
+
+        Requires `IndexedGraph.java`, `CompressedGraph.java`,
+        `IndexedMinHeap.java`, and `SearchContext.java` to function.
+ */
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+public class ContractionHierarchy<Key>
+{
+    // the witness searches give up after visiting this many nodes, and then
+    // add the shortcut even if it might not be needed
+    private static final int WITNESS_LIMIT = 500;
+
+    // the graph the hierarchy was built for, used to translate keys
+    private final IndexedGraph<Key> graph;
+
+    // the position of each node in the contraction order
+    private final int[] rank;
+
+    // the edges from each node to nodes of higher rank, in the direction of
+    // the original edges. the middle node of a shortcut, or -1 for an original
+    // edge, is stored with every edge
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles;
+
+    // the edges into each node from nodes of higher rank, stored at the lower
+    // node with the higher node as the target, so the backward search can
+    // follow them upwards
+    private final int[] downOffsets;
+    private final int[] downTargets;
+    private final int[] downWeights;
+    private final int[] downMiddles;
+
+    private ContractionHierarchy(
+            IndexedGraph<Key> graph,
+            int[] rank,
+            EdgeList[] up,
+            EdgeList[] down)
+    {
+        this.graph = graph;
+        this.rank = rank;
+
+        int nodes = graph.nodes();
+
+        upOffsets = new int[nodes + 1];
+        downOffsets = new int[nodes + 1];
+
+        for (int v = 0; v < nodes; v++)
+        {
+            upOffsets[v + 1] = upOffsets[v] + up[v].size;
+            downOffsets[v + 1] = downOffsets[v] + down[v].size;
+        }
+
+        upTargets = new int[upOffsets[nodes]];
+        upWeights = new int[upOffsets[nodes]];
+        upMiddles = new int[upOffsets[nodes]];
+
+        downTargets = new int[downOffsets[nodes]];
+        downWeights = new int[downOffsets[nodes]];
+        downMiddles = new int[downOffsets[nodes]];
+
+        for (int v = 0; v < nodes; v++)
+        {
+            up[v].copyTo(upOffsets[v], upTargets, upWeights, upMiddles);
+            down[v].copyTo(
+                    downOffsets[v],
+                    downTargets,
+                    downWeights,
+                    downMiddles);
+        }
+    }
+
+    // preprocesses the given graph, which is frozen into a CompressedGraph
+    // first
+    public static <Key> ContractionHierarchy<Key> build(
+            WeightedAdjacencyList<Key> graph)
+    {
+        return build(CompressedGraph.from(graph));
+    }
+
+    // preprocesses the given graph
+    public static <Key> ContractionHierarchy<Key> build(
+            IndexedGraph<Key> graph)
+    {
+        return new Contraction<>(graph).run();
+    }
+
+    // amount of edges, original and shortcuts, in the hierarchy
+    public int edges()
+    {
+        return upTargets.length + downTargets.length;
+    }
+
+    // the position of the node with the given key in the contraction order,
+    // or -1 if it is not in the graph
+    public int rank(Key key)
+    {
+        int id = graph.id(key);
+
+        return id < 0 ? -1 : rank[id];
+    }
+
+    // finds the shortest path from `from` to `to`, using search contexts from
+    // the pool of the current thread
+    public LinkedList<Key> search(Key from, Key to)
+    {
+        SearchContext forward = SearchContext.acquire(graph.nodes());
+        SearchContext backward = SearchContext.acquire(graph.nodes());
+
+        try
+        {
+            return search(from, to, forward, backward);
+        }
+        finally
+        {
+            backward.release();
+            forward.release();
+        }
+    }
+
+    // finds the shortest path from `from` to `to`, keeping the state of the
+    // two searches in the given contexts. the predecessor stored for each node
+    // is the edge it was reached through, so the shortcuts can be unpacked
+    public LinkedList<Key> search(
+            Key from,
+            Key to,
+            SearchContext forward,
+            SearchContext backward)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        if (start < 0 || end < 0)
+        {
+            return null;
+        }
+
+        int meeting = meet(start, end, forward, backward);
+
+        if (meeting < 0)
+        {
+            return null;
+        }
+
+        // the up edges from the start to the meeting node, followed by the
+        // down edges from the meeting node to the end
+        IntStack edges = new IntStack();
+
+        for (int current = meeting; current != start; )
+        {
+            int edge = forward.previous(current);
+
+            edges.push(edge);
+            current = owner(upOffsets, edge);
+        }
+
+        LinkedList<Key> path =
+                new LinkedList<>();
+
+        path.add(graph.key(start));
+
+        while (!edges.isEmpty())
+        {
+            int edge = edges.pop();
+
+            unpack(
+                    owner(upOffsets, edge),
+                    upTargets[edge],
+                    upMiddles[edge],
+                    path);
+        }
+
+        for (int current = meeting; current != end; )
+        {
+            // the down edge is stored at the lower node, which is the next
+            // node towards the end
+            int edge = backward.previous(current);
+            int next = owner(downOffsets, edge);
+
+            unpack(current, next, downMiddles[edge], path);
+            current = next;
+        }
+
+        return path;
+    }
+
+    // the length of the shortest path from `from` to `to`, or
+    // `SearchContext.UNREACHED` if there is none
+    public long distance(Key from, Key to)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        if (start < 0 || end < 0)
+        {
+            return SearchContext.UNREACHED;
+        }
+
+        SearchContext forward = SearchContext.acquire(graph.nodes());
+        SearchContext backward = SearchContext.acquire(graph.nodes());
+
+        try
+        {
+            int meeting = meet(start, end, forward, backward);
+
+            return meeting < 0
+                    ? SearchContext.UNREACHED
+                    : forward.distance(meeting) + backward.distance(meeting);
+        }
+        finally
+        {
+            backward.release();
+            forward.release();
+        }
+    }
+
+    // runs the upward searches from both ends and returns the node where the
+    // shortest path goes from up to down, or -1 if there is no path
+    private int meet(
+            int start,
+            int end,
+            SearchContext forward,
+            SearchContext backward)
+    {
+        forward.reset(graph.nodes());
+        backward.reset(graph.nodes());
+
+        forward.reach(start, 0, -1);
+        forward.heap().insert(start, 0);
+
+        backward.reach(end, 0, -1);
+        backward.heap().insert(end, 0);
+
+        long best = SearchContext.UNREACHED;
+        int meeting = -1;
+
+        IndexedMinHeap forwardHeap = forward.heap();
+        IndexedMinHeap backwardHeap = backward.heap();
+
+        // unlike plain bidirectional Dijkstra, the searches may not stop when
+        // they first meet since neither search can see the whole graph. each
+        // search stops once it has nothing closer than the best path left
+        while (true)
+        {
+            boolean forwardDone =
+                    forwardHeap.isEmpty() || forwardHeap.peekPriority() >= best;
+            boolean backwardDone =
+                    backwardHeap.isEmpty()
+                            || backwardHeap.peekPriority() >= best;
+
+            if (forwardDone && backwardDone)
+            {
+                break;
+            }
+
+            boolean isForward = !forwardDone
+                    && (backwardDone
+                        || forwardHeap.peekPriority()
+                            <= backwardHeap.peekPriority());
+
+            SearchContext self = isForward ? forward : backward;
+            SearchContext other = isForward ? backward : forward;
+
+            int[] offsets = isForward ? upOffsets : downOffsets;
+            int[] targets = isForward ? upTargets : downTargets;
+            int[] weights = isForward ? upWeights : downWeights;
+
+            int node = self.heap().removeMin();
+            long nodeDistance = self.distance(node);
+
+            // the node is settled in this search, if the other search has
+            // reached it there is a path through it
+            if (other.isReached(node)
+                    && nodeDistance + other.distance(node) < best)
+            {
+                best = nodeDistance + other.distance(node);
+                meeting = node;
+            }
+
+            for (int e = offsets[node]; e < offsets[node + 1]; e++)
+            {
+                int adjacent = targets[e];
+                long distance = nodeDistance + weights[e];
+
+                if (distance < self.distance(adjacent))
+                {
+                    // the edge is stored in place of the previous node
+                    self.reach(adjacent, distance, e);
+                    self.heap().offer(adjacent, distance);
+                }
+            }
+        }
+
+        return meeting;
+    }
+
+    // adds the original nodes of the edge from `tail` to `head` to the path,
+    // except `tail` which is expected to already be in it
+    private void unpack(
+            int tail,
+            int head,
+            int middle,
+            LinkedList<Key> path)
+    {
+        // edges left to unpack, as triples of tail, head and middle. the
+        // second half of a shortcut is pushed first so the first half comes
+        // out first
+        IntStack stack = new IntStack();
+
+        stack.push(middle);
+        stack.push(head);
+        stack.push(tail);
+
+        while (!stack.isEmpty())
+        {
+            int a = stack.pop();
+            int b = stack.pop();
+            int m = stack.pop();
+
+            if (m < 0)
+            {
+                path.addLast(graph.key(b));
+                continue;
+            }
+
+            // when m was contracted, the edge a -> m entered m from a higher
+            // node and the edge m -> b left m to a higher node. m -> b is
+            // pushed first so that a -> m is unpacked first
+            stack.push(middleOf(upOffsets, upTargets, upMiddles, m, b));
+            stack.push(b);
+            stack.push(m);
+
+            stack.push(middleOf(downOffsets, downTargets, downMiddles, m, a));
+            stack.push(m);
+            stack.push(a);
+        }
+    }
+
+    // the middle node of the edge stored at `node` towards `target`, there is
+    // at most one such edge
+    private static int middleOf(
+            int[] offsets,
+            int[] targets,
+            int[] middles,
+            int node,
+            int target)
+    {
+        for (int e = offsets[node]; e < offsets[node + 1]; e++)
+        {
+            if (targets[e] == target)
+            {
+                return middles[e];
+            }
+        }
+
+        return -1;
+    }
+
+    // the node whose range of edges contains `edge`
+    private static int owner(int[] offsets, int edge)
+    {
+        int low = 0;
+        int high = offsets.length - 2;
+
+        // find the last node whose range starts at or before the edge, empty
+        // ranges before it start at the same edge but come earlier
+        while (low < high)
+        {
+            int middle = (low + high + 1) >>> 1;
+
+            if (offsets[middle] <= edge)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+
+        return low;
+    }
+
+    // the nodes and edges of the graph while it is being contracted
+    private static class Contraction<Key>
+    {
+        private final IndexedGraph<Key> graph;
+        private final int nodes;
+
+        // the edges between nodes that are not yet contracted
+        private final EdgeList[] out;
+        private final EdgeList[] in;
+
+        // the edges kept for the final hierarchy
+        private final EdgeList[] up;
+        private final EdgeList[] down;
+
+        private final int[] rank;
+
+        // amount of contracted neighbours of every node, which spreads the
+        // contraction evenly over the graph
+        private final int[] deletedNeighbours;
+
+        // the state of the witness searches
+        private final SearchContext witness;
+
+        Contraction(IndexedGraph<Key> graph)
+        {
+            this.graph = graph;
+            this.nodes = graph.nodes();
+
+            out = new EdgeList[nodes];
+            in = new EdgeList[nodes];
+            up = new EdgeList[nodes];
+            down = new EdgeList[nodes];
+
+            for (int v = 0; v < nodes; v++)
+            {
+                out[v] = new EdgeList();
+                in[v] = new EdgeList();
+            }
+
+            // only the shortest of parallel edges matters, and loops never
+            // are on a shortest path
+            for (int v = 0; v < nodes; v++)
+            {
+                for (int e = graph.begin(v); e < graph.end(v); e++)
+                {
+                    int w = graph.target(e);
+
+                    if (w != v)
+                    {
+                        addEdge(v, w, graph.weight(e), -1);
+                    }
+                }
+            }
+
+            rank = new int[nodes];
+            deletedNeighbours = new int[nodes];
+
+            witness = new SearchContext(nodes);
+        }
+
+        ContractionHierarchy<Key> run()
+        {
+            IndexedMinHeap order = new IndexedMinHeap(nodes);
+
+            for (int v = 0; v < nodes; v++)
+            {
+                order.insert(v, priority(v));
+            }
+
+            int next = 0;
+
+            while (!order.isEmpty())
+            {
+                int v = order.removeMin();
+
+                // priorities change as the graph is contracted and are only
+                // updated lazily, so check that v still is the least
+                // important before contracting it
+                long current = priority(v);
+
+                if (!order.isEmpty() && current > order.peekPriority())
+                {
+                    order.insert(v, current);
+                    continue;
+                }
+
+                rank[v] = next++;
+                contract(v);
+
+                // the neighbours lost an edge and possibly gained shortcuts.
+                // recomputing their priorities here costs more than it gains,
+                // only their count of contracted neighbours is updated and
+                // the rest is caught when they reach the top
+                for (int i = 0; i < out[v].size; i++)
+                {
+                    deletedNeighbours[out[v].nodes[i]]++;
+                }
+
+                for (int i = 0; i < in[v].size; i++)
+                {
+                    deletedNeighbours[in[v].nodes[i]]++;
+                }
+
+                out[v] = null;
+                in[v] = null;
+            }
+
+            return new ContractionHierarchy<>(graph, rank, up, down);
+        }
+
+        // the importance of a node; nodes that need few shortcuts compared
+        // to the edges they remove and that have few contracted neighbours go
+        // first
+        private long priority(int v)
+        {
+            int shortcuts = shortcuts(v, false);
+
+            return 2L * (shortcuts - in[v].size - out[v].size)
+                    + deletedNeighbours[v];
+        }
+
+        // removes v from the graph, adding the shortcuts needed to keep the
+        // shortest paths between its neighbours, and keeps its remaining
+        // edges for the hierarchy
+        private void contract(int v)
+        {
+            shortcuts(v, true);
+
+            up[v] = out[v];
+            down[v] = in[v];
+
+            for (int i = 0; i < out[v].size; i++)
+            {
+                in[out[v].nodes[i]].remove(v);
+            }
+
+            for (int i = 0; i < in[v].size; i++)
+            {
+                out[in[v].nodes[i]].remove(v);
+            }
+        }
+
+        // counts the shortcuts needed when v is contracted, and adds them if
+        // `add` is set
+        private int shortcuts(int v, boolean add)
+        {
+            EdgeList incoming = in[v];
+            EdgeList outgoing = out[v];
+
+            if (incoming.size == 0 || outgoing.size == 0)
+            {
+                return 0;
+            }
+
+            long maxOut = 0;
+            for (int j = 0; j < outgoing.size; j++)
+            {
+                maxOut = Math.max(maxOut, outgoing.weights[j]);
+            }
+
+            int count = 0;
+
+            for (int i = 0; i < incoming.size; i++)
+            {
+                int u = incoming.nodes[i];
+                long toV = incoming.weights[i];
+
+                witnessSearch(u, v, toV + maxOut);
+
+                for (int j = 0; j < outgoing.size; j++)
+                {
+                    int w = outgoing.nodes[j];
+
+                    if (w == u)
+                    {
+                        continue;
+                    }
+
+                    long viaV = toV + outgoing.weights[j];
+
+                    // another path that is no longer makes the shortcut
+                    // unnecessary
+                    if (witness.distance(w) <= viaV)
+                    {
+                        continue;
+                    }
+
+                    count++;
+
+                    if (add)
+                    {
+                        addEdge(u, w, Math.toIntExact(viaV), v);
+                    }
+                }
+            }
+
+            return count;
+        }
+
+        // a limited Dijkstra from u that avoids v and stops once every node
+        // closer than `limit` is found, or after `WITNESS_LIMIT` nodes
+        private void witnessSearch(int u, int v, long limit)
+        {
+            witness.reset(nodes);
+
+            IndexedMinHeap heap = witness.heap();
+
+            witness.reach(u, 0, -1);
+            heap.insert(u, 0);
+
+            int visited = 0;
+
+            while (!heap.isEmpty()
+                    && heap.peekPriority() <= limit
+                    && visited < WITNESS_LIMIT)
+            {
+                int node = heap.removeMin();
+                long nodeDistance = witness.distance(node);
+
+                visited++;
+
+                EdgeList edges = out[node];
+
+                for (int i = 0; i < edges.size; i++)
+                {
+                    int adjacent = edges.nodes[i];
+
+                    if (adjacent == v)
+                    {
+                        continue;
+                    }
+
+                    long distance = nodeDistance + edges.weights[i];
+
+                    if (distance < witness.distance(adjacent))
+                    {
+                        witness.reach(adjacent, distance, node);
+                        heap.offer(adjacent, distance);
+                    }
+                }
+            }
+        }
+
+        // adds the edge from a to b, or shortens the existing one
+        private void addEdge(int a, int b, int weight, int middle)
+        {
+            out[a].put(b, weight, middle);
+            in[b].put(a, weight, middle);
+        }
+    }
+
+    // a growable list of edges from or to a single node
+    private static class EdgeList
+    {
+        int[] nodes = new int[4];
+        int[] weights = new int[4];
+        int[] middles = new int[4];
+        int size;
+
+        // adds the edge to `node`, or shortens the edge already there
+        void put(int node, int weight, int middle)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                if (nodes[i] == node)
+                {
+                    if (weight < weights[i])
+                    {
+                        weights[i] = weight;
+                        middles[i] = middle;
+                    }
+
+                    return;
+                }
+            }
+
+            if (size == nodes.length)
+            {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+
+            nodes[size] = node;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+
+        // removes the edge to `node` by moving the last edge into its place
+        void remove(int node)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                if (nodes[i] == node)
+                {
+                    size--;
+
+                    nodes[i] = nodes[size];
+                    weights[i] = weights[size];
+                    middles[i] = middles[size];
+
+                    return;
+                }
+            }
+        }
+
+        void copyTo(
+                int offset,
+                int[] nodes,
+                int[] weights,
+                int[] middles)
+        {
+            System.arraycopy(this.nodes, 0, nodes, offset, size);
+            System.arraycopy(this.weights, 0, weights, offset, size);
+            System.arraycopy(this.middles, 0, middles, offset, size);
+        }
+    }
+
+    // a growable stack of ints
+    private static class IntStack
+    {
+        private int[] items = new int[16];
+        private int size;
+
+        boolean isEmpty() { return size == 0; }
+
+        void push(int item)
+        {
+            if (size == items.length)
+            {
+                items = Arrays.copyOf(items, size * 2);
+            }
+
+            items[size++] = item;
+        }
+
+        int pop()
+        {
+            return items[--size];
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/10/03
-    Updated: 2020/10/06
+    Updated: 2026/10/17
     Purpose:
         DFS.java attempts at implementing Depth First Search for graphs in
         the WeightedAdjacencyList structure.
@@ -11,109 +11,429 @@
         first argument. The text file should be a file only containing
         bidirectional edges where the nodes use string identifiers.
 
-        Requires `WeightedAdjacencyList.java` and `TestDataParsing.java` to
-        function.
+        Graphs in the IndexedGraph structure, such as CompressedGraph, are
+        searched through the overload taking an IndexedGraph.
+
+        No search recurses, so deep graphs such as long chains do not overflow
+        the call stack. Other depth first algorithms can be built on
+        `traverse` and `traverseAll` with a Visitor, which is called in
+        pre-order and post-order.
+
+        IntWeightedGraphs are searched through the overload taking a
+        SearchContext and an int array for the path, which allocates nothing.
+
+        Requires `WeightedAdjacencyList.java`, `IndexedGraph.java`,
+        `IntWeightedGraph.java`, `SearchContext.java`, and `GraphLoader.java`
+        to function.
  */
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Scanner;
 
 public class DFS
 {
     // searches for the given node `to` from given node `from` in
-    // the given graph `graph`
+    // the given graph `graph`. the nodes are marked by their `Node.index`,
+    // so no key is hashed or compared during the search
     public static <Key> LinkedList<Key> search(
             Key from,
             Key to,
             WeightedAdjacencyList<Key> graph)
     {
+        Node<Key> start = graph.node(from);
+        Node<Key> end = graph.node(to);
+
         // if the graph does not contain either nodes, there can be no path so
         // nothing
-        if (!graph.contains(from) || !graph.contains(to))
+        if (start == null || end == null)
+        {
+            return null;
+        }
+
+        boolean[] marked = new boolean[graph.nodes()];
+        marked[start.index] = true;
+
+        // the current path from the start node and, for each node on it, the
+        // adjacent nodes that have not been tried yet
+        ArrayDeque<Node<Key>> path =
+                new ArrayDeque<>();
+        ArrayDeque<Iterator<KeyValuePair<Node<Key>, Integer>>> cursors =
+                new ArrayDeque<>();
+
+        path.addLast(start);
+        cursors.addLast(start.adjacent.iterator());
+
+        while (!path.isEmpty() && path.peekLast() != end)
+        {
+            Iterator<KeyValuePair<Node<Key>, Integer>> cursor =
+                    cursors.peekLast();
+
+            // all adjacent nodes were searched, backtrack
+            if (!cursor.hasNext())
+            {
+                path.removeLast();
+                cursors.removeLast();
+                continue;
+            }
+
+            Node<Key> adjacent = cursor.next().Key;
+
+            if (!marked[adjacent.index])
+            {
+                marked[adjacent.index] = true;
+
+                path.addLast(adjacent);
+                cursors.addLast(adjacent.adjacent.iterator());
+            }
+        }
+
+        // no path was found, return null
+        if (path.isEmpty())
         {
             return null;
         }
 
-        // otherwise we get the starting node and
-        return search(
-                    graph.node(from),
-                    to);
+        // the stack is the path to the end node
+        LinkedList<Key> identifierPath =
+                new LinkedList<>();
+
+        for (Node<Key> node : path)
+        {
+            identifierPath.addLast(node.identifier);
+        }
+
+        return identifierPath;
     }
 
-    // searches for the given node `to` from given node `from`
+    // searches for the given node `to` from given node `from`. instead of
+    // recursing once per edge of the path, the path and the position reached
+    // in the adjacency list of every node on it are kept on two stacks, so
+    // the depth of the search is not limited by the call stack. without the
+    // graph the size of the search is not known, so the nodes are marked by
+    // their keys
     public static <Key> LinkedList<Key> search(
             Node<Key> from,
             Key to)
     {
+        // the given node is the start, the path is only that node
+        if (from.identifier.equals(to))
+        {
+            LinkedList<Key> path =
+                    new LinkedList<>();
+
+            path.add(to);
+
+            return path;
+        }
+
         // create a hash set with the start node in it already
         HashSet<Key> marked = new HashSet<>();
         marked.add(from.identifier);
 
-        return search(from, to, marked);
+        // the current path from the start node and, for each node on it, the
+        // adjacent nodes that have not been tried yet
+        ArrayDeque<Node<Key>> path =
+                new ArrayDeque<>();
+        ArrayDeque<Iterator<KeyValuePair<Node<Key>, Integer>>> cursors =
+                new ArrayDeque<>();
+
+        path.addLast(from);
+        cursors.addLast(from.adjacent.iterator());
+
+        while (!path.isEmpty())
+        {
+            Iterator<KeyValuePair<Node<Key>, Integer>> cursor =
+                    cursors.peekLast();
+
+            // all adjacent nodes were searched, backtrack
+            if (!cursor.hasNext())
+            {
+                path.removeLast();
+                cursors.removeLast();
+                continue;
+            }
+
+            Node<Key> adjacent = cursor.next().Key;
+
+            // node has been marked, skip it
+            if (!marked.add(adjacent.identifier))
+            {
+                continue;
+            }
+
+            path.addLast(adjacent);
+            cursors.addLast(adjacent.adjacent.iterator());
+
+            // the given node was found, the stack is the path to it
+            if (adjacent.identifier.equals(to))
+            {
+                LinkedList<Key> identifierPath =
+                        new LinkedList<>();
+
+                for (Node<Key> node : path)
+                {
+                    identifierPath.addLast(node.identifier);
+                }
+
+                return identifierPath;
+            }
+        }
+
+        // no path was found, return null
+        return null;
     }
 
-    // recursively search for the given `to` node from the `from` node, while
-    // skipping the nodes contained within `marked`
-    private static <Key> LinkedList<Key> search(
-            Node<Key> from,
+    // searches for the given node `to` from given node `from` in the given
+    // indexed graph `graph`
+    public static <Key> LinkedList<Key> search(
+            Key from,
             Key to,
-            HashSet<Key> marked)
+            IndexedGraph<Key> graph)
     {
-        // the given node was found, return a list containing only that element
-        // so that previous recursions can build onto it
-        if (from.identifier.equals(to))
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        // if the graph does not contain either nodes, there can be no path so
+        // nothing
+        if (start < 0 || end < 0)
         {
-            LinkedList<Key> path =
-                    new LinkedList<>();
+            return null;
+        }
 
-            path.add(to);
+        // the parent of each node is the node below it on the stack, so the
+        // parents of the end node are the path once it is found
+        int[] parent = new int[graph.nodes()];
 
-            return path;
+        boolean completed = traverse(
+                graph,
+                start,
+                new Visitor()
+                {
+                    @Override
+                    public boolean preOrder(int node, int previous)
+                    {
+                        parent[node] = previous;
+
+                        return node != end;
+                    }
+                });
+
+        // the whole reachable graph was searched without finding the end
+        if (completed)
+        {
+            return null;
         }
 
-        // go through each adjacent and search for a path to the given node
-        for (KeyValuePair<Node<Key>, Integer> nodeAndWeight
-                : from.adjacent)
+        LinkedList<Key> path =
+                new LinkedList<>();
+
+        for (int current = end; current >= 0; current = parent[current])
         {
-            // node has been marked, skip it
-            if (marked.contains(
-                    nodeAndWeight.Key
-                            .identifier))
+            path.addFirst(graph.key(current));
+        }
+
+        return path;
+    }
+
+    // searches for the given node `to` from given node `from` in the given
+    // int graph `graph`, keeping the stacks and marks in `context`. the path
+    // is written to the start of `path`, which must have room for
+    // `graph.nodes()` keys, and its length is returned, or -1 if there is no
+    // path
+    public static int search(
+            int from,
+            int to,
+            IntWeightedGraph graph,
+            SearchContext context,
+            int[] path)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        // if the graph does not contain either nodes, there can be no path
+        if (start < 0 || end < 0)
+        {
+            return -1;
+        }
+
+        context.reset(graph.nodes());
+
+        // the current path and the next edge to try for each node on it
+        int[] stack = context.queue();
+        int[] cursor = context.cursors();
+        int depth = 0;
+
+        context.visit(start);
+        stack[depth] = start;
+        cursor[depth] = 0;
+        depth++;
+
+        while (depth > 0 && stack[depth - 1] != end)
+        {
+            int node = stack[depth - 1];
+            int edge = cursor[depth - 1];
+
+            // all adjacent nodes were searched, backtrack
+            if (edge == graph.degree(node))
             {
+                depth--;
                 continue;
             }
 
-            marked.add(nodeAndWeight.Key.identifier);
+            cursor[depth - 1] = edge + 1;
 
-            // recursively find the path
-            LinkedList<Key> pathResult =
-                    search(nodeAndWeight.Key, to, marked);
+            int adjacent = graph.targets(node)[edge];
 
-            // if the result wasn't null then a path from one of the adjacent
-            // nodes to the searched for node was found
-            if (pathResult != null)
+            if (!context.isVisited(adjacent))
             {
-                pathResult
-                        .addFirst(from.identifier);
+                context.visit(adjacent);
 
-                return pathResult;
+                stack[depth] = adjacent;
+                cursor[depth] = 0;
+                depth++;
             }
         }
 
-        // no path was found, return null
-        return null;
+        // the stack is the path to the end node
+        for (int i = 0; i < depth; i++)
+        {
+            path[i] = graph.key(stack[i]);
+        }
+
+        return depth > 0 ? depth : -1;
     }
 
-    public static void main(String[] args) throws FileNotFoundException
+    // the callbacks of a depth first traversal, given the dense identifiers
+    // of the nodes
+    public interface Visitor
     {
-        Scanner file = new Scanner(new File(args[0]));
+        // called when `node` is first reached, through the edge from `parent`
+        // or with -1 for the node the traversal starts at. returning false
+        // stops the whole traversal
+        default boolean preOrder(int node, int parent) { return true; }
 
+        // called once every node reachable from `node` has been searched
+        default void postOrder(int node, int parent) { }
+
+        // called for edges to nodes that have already been reached
+        default void markedEdge(int node, int adjacent) { }
+    }
+
+    // traverses the graph depth first from `start`, calling the visitor for
+    // the nodes and edges found. returns false if the visitor stopped it
+    public static boolean traverse(
+            IndexedGraph<?> graph,
+            int start,
+            Visitor visitor)
+    {
+        return new Traversal(graph).traverse(start, visitor);
+    }
+
+    // traverses the whole graph depth first, starting a new traversal from
+    // every node not reached by the traversals before it, in order of their
+    // identifiers. returns false if the visitor stopped it
+    public static boolean traverseAll(
+            IndexedGraph<?> graph,
+            Visitor visitor)
+    {
+        Traversal traversal = new Traversal(graph);
+
+        for (int node = 0; node < graph.nodes(); node++)
+        {
+            if (!traversal.marked[node] && !traversal.traverse(node, visitor))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // the stacks and marks of a traversal, shared between the traversals from
+    // different starting nodes
+    private static class Traversal
+    {
+        private final IndexedGraph<?> graph;
+
+        private final boolean[] marked;
+
+        // the current path and the next edge to try for each node on it
+        private final int[] stack;
+        private final int[] cursor;
+
+        Traversal(IndexedGraph<?> graph)
+        {
+            this.graph = graph;
+
+            marked = new boolean[graph.nodes()];
+            stack = new int[graph.nodes()];
+            cursor = new int[graph.nodes()];
+        }
+
+        boolean traverse(int start, Visitor visitor)
+        {
+            marked[start] = true;
+
+            if (!visitor.preOrder(start, -1))
+            {
+                return false;
+            }
+
+            int depth = 0;
+
+            stack[depth] = start;
+            cursor[depth] = graph.begin(start);
+            depth++;
+
+            while (depth > 0)
+            {
+                int node = stack[depth - 1];
+                int edge = cursor[depth - 1];
+
+                // all adjacent nodes were searched, backtrack
+                if (edge == graph.end(node))
+                {
+                    depth--;
+                    visitor.postOrder(node, depth > 0 ? stack[depth - 1] : -1);
+                    continue;
+                }
+
+                cursor[depth - 1] = edge + 1;
+
+                int adjacent = graph.target(edge);
+
+                if (marked[adjacent])
+                {
+                    visitor.markedEdge(node, adjacent);
+                    continue;
+                }
+
+                marked[adjacent] = true;
+
+                if (!visitor.preOrder(adjacent, node))
+                {
+                    return false;
+                }
+
+                stack[depth] = adjacent;
+                cursor[depth] = graph.begin(adjacent);
+                depth++;
+            }
+
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
         // create graph from file
         WeightedAdjacencyList<String> graph =
-                TestDataParsing.namedNodesBidirectional(file);
+                GraphLoader.namedNodesBidirectional(Path.of(args[0]));
 
         // take input
         Scanner in = new Scanner(System.in);
@@ -0,0 +1,264 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        EdgeSet.java answers whether an edge, given by the dense identifiers
+        of its tail and head, is in a graph, in about the same time whatever
+        the degree of the tail.
+
+        The heads of every node are kept in a sorted int array and found by
+        bisection while the node has at most HUB edges. Once it has more, its
+        heads move to an IntIntHashMap of their own, so that hubs with
+        millions of edges are not bisected, or shifted on every insertion.
+
+        In front of both sits a Bloom filter over all edges. Most edges asked
+        for in a sparse graph are not in it, and the filter rules out nearly
+        all of those by reading a few bits, without touching the heads of the
+        tail at all. The filter is built again, twice as large, whenever the
+        edges outgrow it, so it stays at about BLOOM_BITS bits per edge.
+    Usage:
+        Used by WeightedAdjacencyList to find duplicate edges:
+            EdgeSet edges = new EdgeSet(expectedEdges);
+            if (edges.add(tail, head))
+            {
+                ...
+            }
+
+        Requires `IntIntHashMap.java` to function.
+ */
+
+import java.util.Arrays;
+
+public class EdgeSet
+{
+    // nodes with more edges than this keep their heads in a hash set
+    private static final int HUB = 32;
+
+    // bits of the Bloom filter per edge, and bits set for each edge
+    private static final int BLOOM_BITS = 8;
+    private static final int BLOOM_HASHES = 3;
+
+    // the largest Bloom filter, in longs, 128 MB. past it the filter fills
+    // up and rules out fewer edges, but stays correct
+    private static final int MAX_BLOOM = 1 << 24;
+
+    // the sorted heads of every node that is not a hub, in the first
+    // `degree` entries, and the heads of every hub
+    private int[][] heads = new int[16][];
+    private int[] degree = new int[16];
+    private IntIntHashMap[] hubs = new IntIntHashMap[16];
+
+    private long[] bloom;
+    private int size;
+
+    public EdgeSet()
+    {
+        this(16);
+    }
+
+    // pre-sizes the Bloom filter for the expected amount of edges
+    public EdgeSet(int expectedEdges)
+    {
+        bloom = new long[bloomWords(Math.max(16, expectedEdges))];
+    }
+
+    // amount of edges
+    public int size() { return size; }
+
+    // checks if the edge from `tail` to `head` has been added
+    public boolean contains(int tail, int head)
+    {
+        if (tail >= degree.length || !mayContain(tail, head))
+        {
+            return false;
+        }
+
+        if (hubs[tail] != null)
+        {
+            return hubs[tail].containsKey(head);
+        }
+
+        return heads[tail] != null
+                && Arrays.binarySearch(heads[tail], 0, degree[tail], head)
+                        >= 0;
+    }
+
+    // adds the edge from `tail` to `head`, returns false if it had already
+    // been added
+    public boolean add(int tail, int head)
+    {
+        if (contains(tail, head))
+        {
+            return false;
+        }
+
+        grow(tail);
+
+        if (hubs[tail] != null)
+        {
+            hubs[tail].put(head, 1);
+        }
+        else
+        {
+            insert(tail, head);
+        }
+
+        size++;
+
+        // the filter is full, build it again from the edges in it
+        if ((long) size * BLOOM_BITS > (long) bloom.length * Long.SIZE
+                && bloom.length < MAX_BLOOM)
+        {
+            rebuild();
+        }
+        else
+        {
+            remember(tail, head);
+        }
+
+        return true;
+    }
+
+    // inserts the head into the sorted heads of the tail, turning the tail
+    // into a hub once it has too many of them
+    private void insert(int tail, int head)
+    {
+        int count = degree[tail];
+
+        if (count == HUB)
+        {
+            IntIntHashMap hub = new IntIntHashMap(0, HUB * 2);
+
+            for (int i = 0; i < count; i++)
+            {
+                hub.put(heads[tail][i], 1);
+            }
+
+            hub.put(head, 1);
+
+            hubs[tail] = hub;
+            heads[tail] = null;
+            degree[tail] = 0;
+
+            return;
+        }
+
+        if (heads[tail] == null)
+        {
+            heads[tail] = new int[4];
+        }
+        else if (count == heads[tail].length)
+        {
+            heads[tail] = Arrays.copyOf(heads[tail], count * 2);
+        }
+
+        // the position of the head, it is known not to be there
+        int position = -Arrays.binarySearch(heads[tail], 0, count, head) - 1;
+
+        System.arraycopy(
+                heads[tail],
+                position,
+                heads[tail],
+                position + 1,
+                count - position);
+
+        heads[tail][position] = head;
+        degree[tail] = count + 1;
+    }
+
+    // makes room for the tail
+    private void grow(int tail)
+    {
+        if (tail < degree.length)
+        {
+            return;
+        }
+
+        int capacity = Math.max(degree.length * 2, tail + 1);
+
+        heads = Arrays.copyOf(heads, capacity);
+        degree = Arrays.copyOf(degree, capacity);
+        hubs = Arrays.copyOf(hubs, capacity);
+    }
+
+    // checks the bits of the edge in the Bloom filter, false means the edge
+    // is certainly not in the set
+    private boolean mayContain(int tail, int head)
+    {
+        long hash = hash(tail, head);
+        int first = (int) hash;
+        int step = (int) (hash >>> 32) | 1;
+        int mask = bloom.length * Long.SIZE - 1;
+
+        for (int i = 0; i < BLOOM_HASHES; i++)
+        {
+            int bit = (first + i * step) & mask;
+
+            if ((bloom[bit >>> 6] & 1L << bit) == 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // sets the bits of the edge in the Bloom filter
+    private void remember(int tail, int head)
+    {
+        long hash = hash(tail, head);
+        int first = (int) hash;
+        int step = (int) (hash >>> 32) | 1;
+        int mask = bloom.length * Long.SIZE - 1;
+
+        for (int i = 0; i < BLOOM_HASHES; i++)
+        {
+            int bit = (first + i * step) & mask;
+
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    // builds the Bloom filter again, large enough for twice the edges
+    private void rebuild()
+    {
+        bloom = new long[bloomWords(size * 2)];
+
+        for (int node = 0; node < degree.length; node++)
+        {
+            int tail = node;
+
+            if (hubs[tail] != null)
+            {
+                hubs[tail].forEachKey(head -> remember(tail, head));
+            }
+
+            for (int i = 0; i < degree[tail]; i++)
+            {
+                remember(tail, heads[tail][i]);
+            }
+        }
+    }
+
+    // the amount of longs for a filter of BLOOM_BITS bits per edge, a power
+    // of two so that bits can be picked by masking
+    private static int bloomWords(int edges)
+    {
+        long bits = Math.max(Long.SIZE, (long) edges * BLOOM_BITS);
+
+        return (int) Math.min(
+                MAX_BLOOM,
+                Long.highestOneBit(bits * 2 - 1) / Long.SIZE);
+    }
+
+    // mixes both identifiers into 64 bits, the low and high halves are used
+    // as two independent hashes
+    private static long hash(int tail, int head)
+    {
+        long hash = ((long) tail << 32 | (head & 0xFFFFFFFFL))
+                * 0x9E3779B97F4A7C15L;
+
+        return hash ^ (hash >>> 29);
+    }
+}
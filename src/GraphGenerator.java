@@ -0,0 +1,569 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        GraphGenerator.java generates random graphs of any size, to see how
+        the graphs, loaders, and searches scale past `contiguous-usa.dat`.
+        The same family, size, and seed always give the same graph.
+
+        These families are:
+
+        1. Erdos-Renyi
+            `edges` edges between nodes picked uniformly at random, so every
+            node has about the same degree
+
+        2. R-MAT
+            `edges` edges between 2^scale nodes, picked by descending into
+            one quarter of the adjacency matrix at a time with the
+            probabilities RMAT_A, RMAT_B, RMAT_C, and what is left, which
+            gives the skewed degrees and communities of social and web graphs
+
+        3. Barabasi-Albert
+            every node after the first `perNode` nodes attaches to `perNode`
+            earlier nodes, picked in proportion to their degree, which gives
+            a few hubs with a large part of all edges
+
+        4. grid
+            a `rows` by `columns` grid, with every node joined to the nodes
+            beside it by edges weighing about the same, like the roads of a
+            city, so that the cheapest paths follow the grid
+
+        The edges are made one at a time and streamed to the file, so the
+        size of the graph is only bounded by the disk, except for
+        Barabasi-Albert which has to remember the ends of every edge to pick
+        from.
+
+        A graph is written either in the numericWeightedNodes text format
+        read by `TestDataParsing`, `GraphLoader`, and `ParallelGraphLoader`,
+        or as a binary edge list, which is about half the size and read by
+        `readBinary`. The binary file starts with a header of HEADER bytes,
+        all numbers little endian:
+            0   int     magic number
+            4   int     version of the format
+            8   int     amount of nodes
+            12  int     unused
+            16  long    amount of edges
+        followed by the tail, head, and weight of every edge as ints. every
+        edge is bidirectional and written once.
+    Usage:
+        Pick a family and write it with a seed:
+            GraphGenerator.Family family =
+                    GraphGenerator.erdosRenyi(1_000_000, 2_000_000);
+            GraphGenerator.writeText(family, seed, path);
+
+        Or from the command line, with the family being `er {nodes}
+        {edges}`, `rmat {scale} {edges}`, `ba {nodes} {perNode}`, or `grid
+        {rows} {columns}`, and the format `text` or `binary`:
+            java GraphGenerator {family} {a} {b} {seed} {format} {file}
+
+        Requires `CompressedGraph.java` to function.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+public class GraphGenerator
+{
+    // identifies the binary format and its version
+    private static final int MAGIC = 0x47454447;
+    private static final int VERSION = 1;
+
+    private static final int HEADER = 24;
+
+    // the weights of the edges are between 1 and MAX_WEIGHT
+    public static final int MAX_WEIGHT = 100;
+
+    // the probabilities of descending into the top left, top right, and
+    // bottom left quarter of the adjacency matrix, the bottom right gets the
+    // rest
+    private static final double RMAT_A = 0.57;
+    private static final double RMAT_B = 0.19;
+    private static final double RMAT_C = 0.19;
+
+    // receives the edges of a graph as they are made
+    public interface Edges
+    {
+        void edge(int tail, int head, int weight) throws IOException;
+    }
+
+    // makes the edges of a family from a random generator
+    private interface Generator
+    {
+        void generate(SplittableRandom random, Edges out) throws IOException;
+    }
+
+    // a family of graphs of a given size, known before any edge is made
+    public static class Family
+    {
+        private final int nodes;
+        private final long edges;
+        private final Generator generator;
+
+        private Family(int nodes, long edges, Generator generator)
+        {
+            this.nodes = nodes;
+            this.edges = edges;
+            this.generator = generator;
+        }
+
+        // amount of nodes, some may have no edges
+        public int nodes() { return nodes; }
+
+        // amount of bidirectional edges
+        public long edges() { return edges; }
+
+        // makes every edge, the same ones in the same order for every seed
+        public void generate(long seed, Edges out) throws IOException
+        {
+            generator.generate(new SplittableRandom(seed), out);
+        }
+    }
+
+    public static Family erdosRenyi(int nodes, long edges)
+    {
+        if (nodes < 2)
+        {
+            throw new IllegalArgumentException("too few nodes " + nodes);
+        }
+
+        return new Family(nodes, edges, (random, out) ->
+        {
+            for (long i = 0; i < edges; i++)
+            {
+                int tail = random.nextInt(nodes);
+                int head = random.nextInt(nodes - 1);
+
+                // skip the tail, so that there are no loops
+                if (head >= tail)
+                {
+                    head++;
+                }
+
+                out.edge(tail, head, weight(random));
+            }
+        });
+    }
+
+    public static Family rmat(int scale, long edges)
+    {
+        if (scale < 1 || scale > 30)
+        {
+            throw new IllegalArgumentException("scale out of range " + scale);
+        }
+
+        return new Family(1 << scale, edges, (random, out) ->
+        {
+            for (long i = 0; i < edges; i++)
+            {
+                int tail = 0;
+                int head = 0;
+
+                // pick a quarter of the matrix at every level, setting one
+                // more bit of the tail and head
+                for (int bit = scale - 1; bit >= 0; bit--)
+                {
+                    double quarter = random.nextDouble();
+
+                    if (quarter >= RMAT_A + RMAT_B + RMAT_C)
+                    {
+                        tail |= 1 << bit;
+                        head |= 1 << bit;
+                    }
+                    else if (quarter >= RMAT_A + RMAT_B)
+                    {
+                        tail |= 1 << bit;
+                    }
+                    else if (quarter >= RMAT_A)
+                    {
+                        head |= 1 << bit;
+                    }
+                }
+
+                out.edge(tail, head, weight(random));
+            }
+        });
+    }
+
+    public static Family barabasiAlbert(int nodes, int perNode)
+    {
+        if (perNode < 1 || nodes <= perNode)
+        {
+            throw new IllegalArgumentException(
+                    "can not attach " + nodes + " nodes to " + perNode);
+        }
+
+        long edges = (long) (nodes - perNode) * perNode;
+
+        // both ends of every edge are remembered to pick from
+        if (edges > (Integer.MAX_VALUE - 8) / 2)
+        {
+            throw new IllegalArgumentException("too many edges " + edges);
+        }
+
+        return new Family(nodes, edges, (random, out) ->
+        {
+            int[] ends = new int[(int) edges * 2];
+            int[] targets = new int[perNode];
+            int count = 0;
+
+            for (int node = perNode; node < nodes; node++)
+            {
+                for (int i = 0; i < perNode; i++)
+                {
+                    // the first node attaches to every node before it, the
+                    // rest pick the end of a random edge, which picks every
+                    // node in proportion to its degree
+                    int target = count == 0
+                            ? i
+                            : ends[random.nextInt(count)];
+
+                    if (attached(targets, i, target))
+                    {
+                        i--;
+                        continue;
+                    }
+
+                    targets[i] = target;
+                }
+
+                for (int i = 0; i < perNode; i++)
+                {
+                    ends[count++] = node;
+                    ends[count++] = targets[i];
+
+                    out.edge(node, targets[i], weight(random));
+                }
+            }
+        });
+    }
+
+    public static Family grid(int rows, int columns)
+    {
+        if (rows < 1
+                || columns < 1
+                || (long) rows * columns > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                    "bad grid " + rows + " x " + columns);
+        }
+
+        long edges = (long) rows * (columns - 1) + (long) (rows - 1) * columns;
+
+        return new Family(rows * columns, edges, (random, out) ->
+        {
+            for (int row = 0; row < rows; row++)
+            {
+                for (int column = 0; column < columns; column++)
+                {
+                    int node = row * columns + column;
+
+                    // every block is about as long as the others, so that
+                    // the cheapest path is close to the fewest blocks
+                    if (column + 1 < columns)
+                    {
+                        out.edge(node, node + 1, block(random));
+                    }
+
+                    if (row + 1 < rows)
+                    {
+                        out.edge(node, node + columns, block(random));
+                    }
+                }
+            }
+        });
+    }
+
+    // writes the graph in the numericWeightedNodes format, every edge once
+    // in each direction, replacing the file if it exists
+    public static void writeText(Family family, long seed, Path file)
+            throws IOException
+    {
+        try (Output output = new Output(file))
+        {
+            output.putText(family.nodes());
+            output.putByte('\n');
+            output.putText(family.edges() * 2);
+            output.putByte('\n');
+
+            family.generate(seed, (tail, head, weight) ->
+            {
+                output.putLine(tail, head, weight);
+                output.putLine(head, tail, weight);
+            });
+        }
+    }
+
+    // writes the graph as a binary edge list, replacing the file if it
+    // exists
+    public static void writeBinary(Family family, long seed, Path file)
+            throws IOException
+    {
+        try (Output output = new Output(file))
+        {
+            output.putInt(MAGIC);
+            output.putInt(VERSION);
+            output.putInt(family.nodes());
+            output.putInt(0);
+            output.putLong(family.edges());
+
+            family.generate(seed, (tail, head, weight) ->
+            {
+                output.putInt(tail);
+                output.putInt(head);
+                output.putInt(weight);
+            });
+        }
+    }
+
+    // reads a binary edge list into a CompressedGraph, the same graph as
+    // loading the graph written as text
+    public static CompressedGraph<Integer> readBinary(Path file)
+            throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file))
+        {
+            ByteBuffer buffer = ByteBuffer
+                    .allocateDirect(1 << 20)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+
+            // start out empty
+            buffer.flip();
+            fill(channel, buffer, HEADER, file);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            {
+                throw new IOException(file + " is not a binary edge list");
+            }
+
+            int nodes = buffer.getInt();
+            buffer.getInt();
+            long edges = buffer.getLong();
+
+            if (edges > Integer.MAX_VALUE / 2)
+            {
+                throw new IllegalStateException(
+                        "too many edges for a CompressedGraph " + edges);
+            }
+
+            CompressedGraph.Builder<Integer> builder =
+                    new CompressedGraph.Builder<>(nodes, (int) edges * 2);
+
+            for (long i = 0; i < edges; i++)
+            {
+                if (buffer.remaining() < 12)
+                {
+                    fill(channel, buffer, 12, file);
+                }
+
+                int tail = buffer.getInt();
+                int head = buffer.getInt();
+                int weight = buffer.getInt();
+
+                builder.addBiEdge(tail, head, weight, weight);
+            }
+
+            return builder.build();
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        long a = Long.parseLong(args[1]);
+        long b = Long.parseLong(args[2]);
+        long seed = Long.parseLong(args[3]);
+        Path file = Path.of(args[5]);
+
+        Family family;
+
+        if (args[0].equals("er"))
+        {
+            family = erdosRenyi((int) a, b);
+        }
+        else if (args[0].equals("rmat"))
+        {
+            family = rmat((int) a, b);
+        }
+        else if (args[0].equals("ba"))
+        {
+            family = barabasiAlbert((int) a, (int) b);
+        }
+        else if (args[0].equals("grid"))
+        {
+            family = grid((int) a, (int) b);
+        }
+        else
+        {
+            throw new IllegalArgumentException("unknown family " + args[0]);
+        }
+
+        if (args[4].equals("text"))
+        {
+            writeText(family, seed, file);
+        }
+        else if (args[4].equals("binary"))
+        {
+            writeBinary(family, seed, file);
+        }
+        else
+        {
+            throw new IllegalArgumentException("unknown format " + args[4]);
+        }
+
+        System.out.printf(
+                "%d nodes, %d edges written to %s\n",
+                family.nodes(),
+                family.edges(),
+                file);
+    }
+
+    private static int weight(SplittableRandom random)
+    {
+        return 1 + random.nextInt(MAX_WEIGHT);
+    }
+
+    // the weight of a block of the grid, in the upper half of the weights
+    private static int block(SplittableRandom random)
+    {
+        return MAX_WEIGHT / 2 + 1 + random.nextInt(MAX_WEIGHT / 2);
+    }
+
+    // checks if the first `count` targets contain the target
+    private static boolean attached(int[] targets, int count, int target)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (targets[i] == target)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // moves what is left of the buffer to its start and reads until at least
+    // `least` bytes are left, leaving the buffer ready to be read
+    private static void fill(
+            FileChannel channel,
+            ByteBuffer buffer,
+            int least,
+            Path file) throws IOException
+    {
+        buffer.compact();
+
+        while (buffer.position() < least)
+        {
+            if (channel.read(buffer) < 0)
+            {
+                throw new IOException(file + " ends early");
+            }
+        }
+
+        buffer.flip();
+    }
+
+    // writes numbers and text to a file through a buffer
+    private static class Output implements AutoCloseable
+    {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        // the digits of a number, backwards
+        private final byte[] digits = new byte[20];
+
+        Output(Path file) throws IOException
+        {
+            this.channel = FileChannel.open(
+                    file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.buffer = ByteBuffer
+                    .allocateDirect(1 << 20)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void putInt(int value) throws IOException
+        {
+            room(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException
+        {
+            room(8);
+            buffer.putLong(value);
+        }
+
+        void putByte(char value) throws IOException
+        {
+            room(1);
+            buffer.put((byte) value);
+        }
+
+        // writes the edge as a line of the numericWeightedNodes format
+        void putLine(int tail, int head, int weight) throws IOException
+        {
+            putText(tail);
+            putByte(' ');
+            putText(head);
+            putByte(' ');
+            putText(weight);
+            putByte('\n');
+        }
+
+        // writes the decimal digits of a number that is not negative
+        void putText(long value) throws IOException
+        {
+            int count = 0;
+
+            do
+            {
+                digits[count++] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            while (value > 0);
+
+            room(count);
+
+            while (count > 0)
+            {
+                buffer.put(digits[--count]);
+            }
+        }
+
+        // writes the buffer to the file if it has less than `bytes` left
+        private void room(int bytes) throws IOException
+        {
+            if (buffer.remaining() < bytes)
+            {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException
+        {
+            buffer.flip();
+
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            flush();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,823 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        GraphLoader.java reads the same formats as `TestDataParsing.java`,
+        straight from a file and much faster. The file is memory-mapped
+        through a FileChannel, in regions so that files larger than 2 GB can
+        be read as well, and the tokens are parsed directly from the mapped
+        bytes. Numbers never become strings and names only become strings the
+        first time they are seen, every later occurrence is found by its bytes
+        in a dictionary of its own.
+
+        Nodes are given their identifiers in the order they first appear, the
+        same order the Scanner loaders give them, so both loaders produce the
+        same graph from the same file. The graphs are pre-sized, from the
+        header of the numeric format or from the size of the file, so they
+        are not grown again and again while loading.
+    Usage:
+        Import the class and use the static functions to load a file:
+            GraphLoader.numericWeightedNodes(path, maxNodes);
+            GraphLoader.namedNodesUnidirectionalCompressed(path);
+
+        Requires `WeightedAdjacencyList.java`, `CompressedGraph.java`,
+        `IntWeightedGraph.java`, and `IntIntHashMap.java` to function.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+public class GraphLoader
+{
+    // the largest part of the file that is mapped at once
+    private static final int REGION = 1 << 30;
+
+    // rough amount of bytes per line of the named formats, used to guess the
+    // amount of edges from the size of the file
+    private static final int NAMED_LINE_BYTES = 8;
+
+    // the most edges a guess from the size of the file may pre-size for
+    private static final int MAX_GUESS = 1 << 24;
+
+    // same as `TestDataParsing.numericWeightedNodes`
+    public static WeightedAdjacencyList<Integer> numericWeightedNodes(
+            Path file,
+            int maxNodes) throws IOException
+    {
+        try (Tokens data = new Tokens(file))
+        {
+            int[] expected = header(data, maxNodes);
+
+            WeightedAdjacencyList<Integer> graph =
+                    new WeightedAdjacencyList<>(expected[0], expected[1]);
+
+            numericWeightedNodes(
+                    data,
+                    maxNodes,
+                    new AdjacencyListSink<>(graph, true));
+
+            return graph;
+        }
+    }
+
+    // same as `TestDataParsing.numericWeightedNodesCompressed`
+    public static CompressedGraph<Integer> numericWeightedNodesCompressed(
+            Path file,
+            int maxNodes) throws IOException
+    {
+        try (Tokens data = new Tokens(file))
+        {
+            int[] expected = header(data, maxNodes);
+
+            CompressedGraph.Builder<Integer> builder =
+                    new CompressedGraph.Builder<>(expected[0], expected[1]);
+
+            numericWeightedNodes(
+                    data,
+                    maxNodes,
+                    new BuilderSink<>(builder, true));
+
+            return builder.build();
+        }
+    }
+
+    // same as `numericWeightedNodes`, into an IntWeightedGraph
+    public static IntWeightedGraph numericWeightedNodesInt(
+            Path file,
+            int maxNodes) throws IOException
+    {
+        try (Tokens data = new Tokens(file))
+        {
+            int[] expected = header(data, maxNodes);
+
+            IntWeightedGraph graph =
+                    new IntWeightedGraph(expected[0]);
+
+            numericWeightedNodes(
+                    data,
+                    maxNodes,
+                    new IntGraphSink(graph));
+
+            return graph;
+        }
+    }
+
+    // same as `TestDataParsing.namedNodesBidirectional`
+    public static WeightedAdjacencyList<String> namedNodesBidirectional(
+            Path file) throws IOException
+    {
+        return namedNodes(file, true);
+    }
+
+    // same as `TestDataParsing.namedNodesUnidirectional`
+    public static WeightedAdjacencyList<String> namedNodesUnidirectional(
+            Path file) throws IOException
+    {
+        return namedNodes(file, false);
+    }
+
+    // same as `TestDataParsing.namedNodesBidirectionalCompressed`
+    public static CompressedGraph<String> namedNodesBidirectionalCompressed(
+            Path file) throws IOException
+    {
+        return namedNodesCompressed(file, true);
+    }
+
+    // same as `TestDataParsing.namedNodesUnidirectionalCompressed`
+    public static CompressedGraph<String> namedNodesUnidirectionalCompressed(
+            Path file) throws IOException
+    {
+        return namedNodesCompressed(file, false);
+    }
+
+    private static WeightedAdjacencyList<String> namedNodes(
+            Path file,
+            boolean bidirectional) throws IOException
+    {
+        try (Tokens data = new Tokens(file))
+        {
+            int lines = (int) Math.min(
+                    data.end / NAMED_LINE_BYTES,
+                    MAX_GUESS);
+
+            WeightedAdjacencyList<String> graph =
+                    new WeightedAdjacencyList<>(
+                            0,
+                            bidirectional ? lines * 2 : lines);
+
+            namedNodes(data, new AdjacencyListSink<>(graph, bidirectional));
+
+            return graph;
+        }
+    }
+
+    private static CompressedGraph<String> namedNodesCompressed(
+            Path file,
+            boolean bidirectional) throws IOException
+    {
+        try (Tokens data = new Tokens(file))
+        {
+            int lines = (int) Math.min(
+                    data.end / NAMED_LINE_BYTES,
+                    MAX_GUESS);
+
+            CompressedGraph.Builder<String> builder =
+                    new CompressedGraph.Builder<>(
+                            0,
+                            bidirectional ? lines * 2 : lines);
+
+            namedNodes(data, new BuilderSink<>(builder, bidirectional));
+
+            return builder.build();
+        }
+    }
+
+    // reads the two header lines of the numeric format, the amount of nodes
+    // and of edge lines, and returns how many nodes and edges to expect when
+    // at most `maxNodes` nodes are read
+    private static int[] header(Tokens data, int maxNodes) throws IOException
+    {
+        long nodes = Math.max(0, data.lineValue());
+        long edges = Math.max(0, data.lineValue());
+
+        if (maxNodes >= 0 && maxNodes < nodes)
+        {
+            // the edges are assumed to be spread evenly over the nodes
+            edges = edges * maxNodes / nodes;
+            nodes = maxNodes;
+        }
+
+        return new int[] {
+                (int) Math.min(nodes, Integer.MAX_VALUE - 8),
+                (int) Math.min(edges, Integer.MAX_VALUE - 8) };
+    }
+
+    // reads the edges of the numeric format, after its header, in the same
+    // way as `TestDataParsing.numericWeightedNodes`
+    private static void numericWeightedNodes(
+            Tokens data,
+            int maxNodes,
+            Sink<Integer> sink) throws IOException
+    {
+        if (maxNodes < 0)
+        {
+            maxNodes = Integer.MAX_VALUE;
+        }
+
+        IntIds ids = new IntIds();
+
+        while (ids.size() < maxNodes && data.hasNext())
+        {
+            int tail = id(ids, data.nextInt(), sink);
+            int head = id(ids, data.nextInt(), sink);
+            int weight = data.nextInt();
+
+            sink.addEdge(tail, head, weight);
+
+            // in data is in directional format, so edges appear twice
+            data.skipLine();
+            data.skipLine();
+        }
+    }
+
+    // the identifier of the number, given to it and to the sink if the
+    // number has not been seen before
+    private static int id(IntIds ids, int number, Sink<Integer> sink)
+    {
+        int id = ids.id(number);
+
+        if (id < 0)
+        {
+            id = ids.add(number);
+            sink.addNode(number);
+        }
+
+        return id;
+    }
+
+    // reads pairs of names, in the same way as `TestDataParsing.namedNodes`
+    private static void namedNodes(
+            Tokens data,
+            Sink<String> sink) throws IOException
+    {
+        NameIds ids = new NameIds();
+
+        while (data.hasNext())
+        {
+            int tail = data.nextName(ids, sink);
+
+            if (!data.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            int head = data.nextName(ids, sink);
+
+            sink.addEdge(tail, head, 0);
+        }
+    }
+
+    // receives the nodes, in the order of their identifiers, and the edges
+    // between them as they are read
+    interface Sink<Key>
+    {
+        void addNode(Key node);
+
+        void addEdge(int tail, int head, int weight);
+    }
+
+    static class AdjacencyListSink<Key> implements Sink<Key>
+    {
+        private final WeightedAdjacencyList<Key> graph;
+        private final boolean bidirectional;
+
+        AdjacencyListSink(
+                WeightedAdjacencyList<Key> graph,
+                boolean bidirectional)
+        {
+            this.graph = graph;
+            this.bidirectional = bidirectional;
+        }
+
+        @Override
+        public void addNode(Key node)
+        {
+            graph.addNode(node);
+        }
+
+        @Override
+        public void addEdge(int tail, int head, int weight)
+        {
+            Key a = graph.nodeAt(tail).identifier;
+            Key b = graph.nodeAt(head).identifier;
+
+            if (bidirectional)
+            {
+                graph.addBiEdge(a, b, weight, weight);
+            }
+            else
+            {
+                graph.addEdge(a, b, weight);
+            }
+        }
+    }
+
+    static class BuilderSink<Key> implements Sink<Key>
+    {
+        private final CompressedGraph.Builder<Key> builder;
+        private final boolean bidirectional;
+
+        BuilderSink(
+                CompressedGraph.Builder<Key> builder,
+                boolean bidirectional)
+        {
+            this.builder = builder;
+            this.bidirectional = bidirectional;
+        }
+
+        @Override
+        public void addNode(Key node)
+        {
+            builder.addNode(node);
+        }
+
+        @Override
+        public void addEdge(int tail, int head, int weight)
+        {
+            builder.addEdgeBetween(tail, head, weight);
+
+            if (bidirectional)
+            {
+                builder.addEdgeBetween(head, tail, weight);
+            }
+        }
+    }
+
+    // adds the edges in both directions, the identifiers given by the loader
+    // are the ones the graph gives, since both count up from 0
+    static class IntGraphSink implements Sink<Integer>
+    {
+        private final IntWeightedGraph graph;
+
+        IntGraphSink(IntWeightedGraph graph)
+        {
+            this.graph = graph;
+        }
+
+        @Override
+        public void addNode(Integer node)
+        {
+            graph.addNode(node);
+        }
+
+        @Override
+        public void addEdge(int tail, int head, int weight)
+        {
+            graph.addEdgeBetween(tail, head, weight);
+            graph.addEdgeBetween(head, tail, weight);
+        }
+    }
+
+    // the numbers seen so far, given identifiers in the order they are added
+    static class IntIds
+    {
+        private final IntIntHashMap ids = new IntIntHashMap(-1, 1 << 9);
+
+        // the number of every identifier
+        private int[] numbers = new int[1 << 9];
+
+        int size() { return ids.size(); }
+
+        // the number with the given identifier
+        int number(int id) { return numbers[id]; }
+
+        // the identifier of the number, or -1 if it has not been added
+        int id(int number) { return ids.get(number); }
+
+        // gives the number, which must not have been added before, the next
+        // identifier and returns it
+        int add(int number)
+        {
+            int id = ids.size();
+
+            if (id == numbers.length)
+            {
+                numbers = Arrays.copyOf(numbers, id * 2);
+            }
+
+            numbers[id] = number;
+            ids.put(number, id);
+
+            return id;
+        }
+    }
+
+    // the names seen so far and their identifiers, found by their bytes so
+    // that a name is only decoded into a string once
+    private static class NameIds
+    {
+        // identifier + 1 of the name in each slot, 0 for an empty slot
+        private int[] slots = new int[1 << 10];
+
+        // the bytes of all names after each other, and where the bytes of
+        // every identifier start and end
+        private byte[] bytes = new byte[1 << 12];
+        private int[] starts = new int[(1 << 9) + 1];
+        private int[] hashes = new int[1 << 9];
+        private int size;
+
+        // the identifier of the name in `from` to `to` of the buffer, given
+        // to it and to the sink if the name has not been seen before
+        int add(MappedByteBuffer buffer, int from, int to, Sink<String> sink)
+        {
+            int hash = 1;
+
+            for (int i = from; i < to; i++)
+            {
+                hash = 31 * hash + buffer.get(i);
+            }
+
+            hash ^= hash >>> 16;
+
+            int mask = slots.length - 1;
+
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask)
+            {
+                int id = slots[slot] - 1;
+
+                if (id < 0)
+                {
+                    slots[slot] = size + 1;
+                    break;
+                }
+
+                if (hashes[id] == hash && equal(id, buffer, from, to))
+                {
+                    return id;
+                }
+            }
+
+            int length = to - from;
+            int start = starts[size];
+
+            if (start + length > bytes.length)
+            {
+                bytes = Arrays.copyOf(
+                        bytes,
+                        Math.max(bytes.length * 2, start + length));
+            }
+
+            if (size + 1 == starts.length)
+            {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+                hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            }
+
+            buffer.get(from, bytes, start, length);
+            starts[size + 1] = start + length;
+            hashes[size] = hash;
+
+            sink.addNode(new String(
+                    bytes,
+                    start,
+                    length,
+                    StandardCharsets.UTF_8));
+
+            if (++size * 2 > slots.length)
+            {
+                rehash();
+            }
+
+            return size - 1;
+        }
+
+        private boolean equal(
+                int id,
+                MappedByteBuffer buffer,
+                int from,
+                int to)
+        {
+            int start = starts[id];
+
+            if (starts[id + 1] - start != to - from)
+            {
+                return false;
+            }
+
+            for (int i = from; i < to; i++)
+            {
+                if (bytes[start++] != buffer.get(i))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private void rehash()
+        {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+
+            for (int id = 0; id < size; id++)
+            {
+                int slot = hashes[id] & mask;
+
+                while (slots[slot] != 0)
+                {
+                    slot = (slot + 1) & mask;
+                }
+
+                slots[slot] = id + 1;
+            }
+        }
+    }
+
+    // the tokens of a file, read from the file mapped into memory one region
+    // at a time
+    static class Tokens implements Closeable
+    {
+        private final FileChannel channel;
+        private final boolean owned;
+
+        // the tokens end at this position of the file
+        private final long end;
+
+        // the mapped region, which starts at `base` in the file
+        private MappedByteBuffer buffer;
+        private long base;
+        private int limit;
+
+        // the next byte to read, within the region
+        private int position;
+
+        // the tokens of the whole file
+        Tokens(Path file) throws IOException
+        {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            owned = true;
+            end = channel.size();
+
+            map(0);
+        }
+
+        // the tokens from `from` to `to` of an open file, which is not closed
+        // with the tokens
+        Tokens(FileChannel channel, long from, long to) throws IOException
+        {
+            this.channel = channel;
+            owned = false;
+            end = to;
+
+            map(from);
+        }
+
+        // the position of the next byte to read in the file
+        long offset() { return base + position; }
+
+        // checks if any bytes are left
+        boolean hasBytes() { return base + position < end; }
+
+        // maps the region of the file starting at `from`
+        private void map(long from) throws IOException
+        {
+            base = from;
+            limit = (int) Math.min(REGION, end - from);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, limit);
+            position = 0;
+        }
+
+        // maps the region after the current one, false if there is none
+        private boolean next() throws IOException
+        {
+            if (base + limit >= end)
+            {
+                return false;
+            }
+
+            map(base + limit);
+
+            return true;
+        }
+
+        // moves to the start of the next token, false if there is none
+        boolean hasNext() throws IOException
+        {
+            do
+            {
+                while (position < limit)
+                {
+                    if (!isWhitespace(buffer.get(position)))
+                    {
+                        return true;
+                    }
+
+                    position++;
+                }
+            }
+            while (next());
+
+            return false;
+        }
+
+        // the end of the token at the current position, which is mapped
+        // again at the start of a region if it crossed the end of one
+        private int tokenEnd() throws IOException
+        {
+            int end = position;
+
+            while (true)
+            {
+                while (end < limit && !isWhitespace(buffer.get(end)))
+                {
+                    end++;
+                }
+
+                if (end < limit || base + limit >= this.end)
+                {
+                    return end;
+                }
+
+                if (position == 0)
+                {
+                    throw new IOException("token longer than " + REGION);
+                }
+
+                end -= position;
+                map(base + position);
+            }
+        }
+
+        int nextInt() throws IOException
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            int end = tokenEnd();
+            int i = position;
+
+            boolean negative = buffer.get(i) == '-';
+
+            if (negative || buffer.get(i) == '+')
+            {
+                i++;
+            }
+
+            if (i == end)
+            {
+                throw mismatch(end);
+            }
+
+            long value = 0;
+
+            for (; i < end; i++)
+            {
+                int digit = buffer.get(i) - '0';
+
+                if (digit < 0 || digit > 9)
+                {
+                    throw mismatch(end);
+                }
+
+                value = value * 10 + digit;
+
+                if (value > (long) Integer.MAX_VALUE + 1)
+                {
+                    throw mismatch(end);
+                }
+            }
+
+            if (negative)
+            {
+                value = -value;
+            }
+
+            if (value > Integer.MAX_VALUE)
+            {
+                throw mismatch(end);
+            }
+
+            position = end;
+
+            return (int) value;
+        }
+
+        // the identifier of the name at the current position, the caller
+        // must have checked that there is one
+        int nextName(NameIds ids, Sink<String> sink) throws IOException
+        {
+            int end = tokenEnd();
+            int id = ids.add(buffer, position, end, sink);
+
+            position = end;
+
+            return id;
+        }
+
+        // the number at the start of the current line, or -1 if the line
+        // does not start with one, and moves to the next line
+        long lineValue() throws IOException
+        {
+            long value = -1;
+
+            while (position < limit || next())
+            {
+                int digit = buffer.get(position) - '0';
+
+                if (digit < 0 || digit > 9)
+                {
+                    break;
+                }
+
+                value = Math.min(
+                        Math.max(value, 0) * 10 + digit,
+                        Integer.MAX_VALUE);
+                position++;
+            }
+
+            skipLine();
+
+            return value;
+        }
+
+        // moves to the start of the next token on the current line, false if
+        // the line has no more tokens
+        boolean hasNextOnLine() throws IOException
+        {
+            do
+            {
+                while (position < limit)
+                {
+                    byte b = buffer.get(position);
+
+                    if (b == '\n' || !isWhitespace(b))
+                    {
+                        return b != '\n';
+                    }
+
+                    position++;
+                }
+            }
+            while (next());
+
+            return false;
+        }
+
+        // the amount of lines left, the last one counted even if it does not
+        // end with a newline. moves to the end
+        long countLines() throws IOException
+        {
+            long lines = 0;
+            byte last = '\n';
+
+            do
+            {
+                for (; position < limit; position++)
+                {
+                    last = buffer.get(position);
+
+                    if (last == '\n')
+                    {
+                        lines++;
+                    }
+                }
+            }
+            while (next());
+
+            return last == '\n' ? lines : lines + 1;
+        }
+
+        // moves past the end of the current line
+        void skipLine() throws IOException
+        {
+            do
+            {
+                while (position < limit)
+                {
+                    if (buffer.get(position++) == '\n')
+                    {
+                        return;
+                    }
+                }
+            }
+            while (next());
+        }
+
+        private InputMismatchException mismatch(int end)
+        {
+            byte[] token = new byte[end - position];
+            buffer.get(position, token);
+
+            return new InputMismatchException(
+                    new String(token, StandardCharsets.UTF_8));
+        }
+
+        // the same characters as `\s` in a regular expression
+        private static boolean isWhitespace(byte b)
+        {
+            return b == ' ' || b == '\n' || b == '\t'
+                    || b == '\r' || b == '\f' || b == 0x0B;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (owned)
+            {
+                channel.close();
+            }
+        }
+    }
+}
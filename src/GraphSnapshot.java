@@ -0,0 +1,736 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        GraphSnapshot.java writes a graph to a binary file and opens such a
+        file again as a BufferGraph over the mapped file, without reading or
+        copying any of it. Opening a snapshot takes about the same time for
+        every size of graph, and every process that opens the same snapshot
+        shares its pages through the page cache.
+
+        The file starts with a header of HEADER bytes, all numbers little
+        endian:
+            0   int     magic number
+            4   int     version of the format
+            8   int     type of the keys, INTEGER_KEYS or STRING_KEYS
+            12  int     amount of nodes
+            16  int     amount of edges
+            24  long    amount of bytes of the string keys
+            32  long    CRC32C checksum of everything after the header
+            60  int     CRC32C checksum of the header before it
+        followed by sections that each start at a multiple of 8 bytes:
+            offsets, targets, and weights of the edges, as ints
+            offsets, targets, and weights of the reversed edges, as ints
+            integer keys: the key of every node, as ints
+            string keys: where the UTF-8 bytes of every key start, as longs
+            the nodes sorted by key, as ints, to look keys up by bisection
+            string keys: the UTF-8 bytes of all keys after each other
+
+        The header is checked when a snapshot is opened, the checksum of the
+        rest is only checked by `verify`, since it means reading the whole
+        file.
+    Usage:
+        Write any graph with integer or string keys, and open it later:
+            GraphSnapshot.write(graph, path);
+            BufferGraph<Integer> graph =
+                    GraphSnapshot.open(path, Integer.class);
+
+        Or convert a text file from the command line, with the format being
+        `numeric`, `bidirectional`, or `unidirectional`:
+            java GraphSnapshot {format} {text file} {snapshot file}
+
+        Requires `IndexedGraph.java`, `BufferGraph.java`, `GraphLoader.java`,
+        and `ParallelGraphLoader.java` to function.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+public class GraphSnapshot
+{
+    // identifies the file format and its version
+    private static final int MAGIC = 0x47534E50;
+    private static final int VERSION = 1;
+
+    private static final int HEADER = 64;
+
+    // the types of keys a snapshot can hold
+    private static final int INTEGER_KEYS = 0;
+    private static final int STRING_KEYS = 1;
+
+    // writes the graph to the file, replacing it if it exists. the keys of
+    // the graph must all be Integers or all be Strings
+    public static void write(IndexedGraph<?> graph, Path file)
+            throws IOException
+    {
+        int nodes = graph.nodes();
+        int type = keyType(graph);
+
+        // the keys in UTF-8, and the total amount of bytes they take
+        byte[][] names = null;
+        long keyBytes = 0;
+
+        if (type == STRING_KEYS)
+        {
+            names = new byte[nodes][];
+
+            for (int id = 0; id < nodes; id++)
+            {
+                names[id] = ((String) graph.key(id))
+                        .getBytes(StandardCharsets.UTF_8);
+                keyBytes += names[id].length;
+            }
+        }
+
+        Layout layout = new Layout(type, nodes, graph.edges(), keyBytes, 0);
+
+        try (FileChannel channel = FileChannel.open(
+                     file,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE))
+        {
+            Output out = new Output(channel);
+
+            writeEdges(out, layout.offsets, graph);
+            writeEdges(out, layout.reverseOffsets, graph.reverse());
+
+            out.at(layout.keys);
+
+            if (type == INTEGER_KEYS)
+            {
+                for (int id = 0; id < nodes; id++)
+                {
+                    out.putInt((Integer) graph.key(id));
+                }
+            }
+            else
+            {
+                long start = 0;
+
+                for (int id = 0; id < nodes; id++)
+                {
+                    out.putLong(start);
+                    start += names[id].length;
+                }
+
+                out.putLong(start);
+            }
+
+            out.at(layout.index);
+
+            for (int id : sortedByKey(graph, names))
+            {
+                out.putInt(id);
+            }
+
+            if (type == STRING_KEYS)
+            {
+                out.at(layout.blob);
+
+                for (byte[] name : names)
+                {
+                    out.put(name);
+                }
+            }
+
+            out.at(layout.end);
+            out.flush();
+
+            // the header goes in front once the checksum of the rest is known
+            ByteBuffer header = ByteBuffer
+                    .allocate(HEADER)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, type);
+            header.putInt(12, nodes);
+            header.putInt(16, graph.edges());
+            header.putLong(24, keyBytes);
+            header.putLong(32, out.checksum());
+            header.putInt(60, headerChecksum(header));
+
+            channel.write(header, 0);
+        }
+    }
+
+    // opens the snapshot in the file as a graph whose keys are of the given
+    // type, Integer or String. the mapped buffers stay valid after the file
+    // itself is closed
+    @SuppressWarnings("unchecked")
+    public static <Key> BufferGraph<Key> open(Path file, Class<Key> type)
+            throws IOException
+    {
+        try (FileChannel channel =
+                     FileChannel.open(file, StandardOpenOption.READ))
+        {
+            Layout layout = header(file, channel);
+
+            int expected = type == Integer.class ? INTEGER_KEYS
+                    : type == String.class ? STRING_KEYS
+                    : -1;
+
+            if (layout.type != expected)
+            {
+                throw new IOException(
+                        file + " does not hold keys of " + type.getName());
+            }
+
+            int nodes = layout.nodes;
+            int edges = layout.edges;
+
+            IntBuffer index = map(channel, layout.index, nodes * 4L)
+                    .asIntBuffer();
+
+            ToIntFunction<Key> ids;
+            IntFunction<Key> keys;
+
+            if (layout.type == INTEGER_KEYS)
+            {
+                IntBuffer numbers = map(channel, layout.keys, nodes * 4L)
+                        .asIntBuffer();
+
+                ids = (ToIntFunction<Key>) integerIds(numbers, index);
+                keys = id -> (Key) Integer.valueOf(numbers.get(id));
+            }
+            else
+            {
+                LongBuffer starts =
+                        map(channel, layout.keys, (nodes + 1) * 8L)
+                                .asLongBuffer();
+                ByteBuffer blob = map(channel, layout.blob, layout.keyBytes);
+
+                ids = (ToIntFunction<Key>) stringIds(starts, blob, index);
+                keys = id -> (Key) string(starts, blob, id);
+            }
+
+            return new BufferGraph<>(
+                    map(channel, layout.offsets, (nodes + 1) * 4L)
+                            .asIntBuffer(),
+                    map(channel, layout.targets, edges * 4L).asIntBuffer(),
+                    map(channel, layout.weights, edges * 4L).asIntBuffer(),
+                    map(channel, layout.reverseOffsets, (nodes + 1) * 4L)
+                            .asIntBuffer(),
+                    map(channel, layout.reverseTargets, edges * 4L)
+                            .asIntBuffer(),
+                    map(channel, layout.reverseWeights, edges * 4L)
+                            .asIntBuffer(),
+                    ids,
+                    keys);
+        }
+    }
+
+    // checks the whole snapshot against its checksum, false if any of it
+    // has changed since it was written
+    public static boolean verify(Path file) throws IOException
+    {
+        try (FileChannel channel =
+                     FileChannel.open(file, StandardOpenOption.READ))
+        {
+            Layout layout = header(file, channel);
+
+            CRC32C checksum = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+            channel.position(HEADER);
+
+            while (channel.read(buffer) > 0)
+            {
+                buffer.flip();
+                checksum.update(buffer);
+                buffer.clear();
+            }
+
+            return checksum.getValue() == layout.checksum;
+        }
+    }
+
+    // converts a text file to a snapshot, see the usage above
+    public static void main(String[] args) throws IOException
+    {
+        Path text = Path.of(args[1]);
+        IndexedGraph<?> graph;
+
+        if (args[0].equals("numeric"))
+        {
+            graph = ParallelGraphLoader.numericWeightedNodesCompressed(
+                    text,
+                    -1);
+        }
+        else if (args[0].equals("bidirectional"))
+        {
+            graph = GraphLoader.namedNodesBidirectionalCompressed(text);
+        }
+        else if (args[0].equals("unidirectional"))
+        {
+            graph = GraphLoader.namedNodesUnidirectionalCompressed(text);
+        }
+        else
+        {
+            throw new IllegalArgumentException("unknown format " + args[0]);
+        }
+
+        write(graph, Path.of(args[2]));
+    }
+
+    // reads and checks the header, and returns where everything is
+    private static Layout header(Path file, FileChannel channel)
+            throws IOException
+    {
+        ByteBuffer header = ByteBuffer
+                .allocate(HEADER)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        while (header.hasRemaining() && channel.read(header) >= 0)
+        {
+            // keep reading until the header is full or the file ends
+        }
+
+        if (header.hasRemaining()
+                || header.getInt(0) != MAGIC
+                || header.getInt(60) != headerChecksum(header))
+        {
+            throw new IOException(file + " is not a graph snapshot");
+        }
+
+        if (header.getInt(4) != VERSION)
+        {
+            throw new IOException(
+                    file + " is version " + header.getInt(4)
+                            + " of the snapshot format, not " + VERSION);
+        }
+
+        Layout layout = new Layout(
+                header.getInt(8),
+                header.getInt(12),
+                header.getInt(16),
+                header.getLong(24),
+                header.getLong(32));
+
+        if (channel.size() != layout.end)
+        {
+            throw new IOException(file + " is not a complete snapshot");
+        }
+
+        return layout;
+    }
+
+    private static int headerChecksum(ByteBuffer header)
+    {
+        CRC32C checksum = new CRC32C();
+        checksum.update(header.array(), 0, 60);
+
+        return (int) checksum.getValue();
+    }
+
+    // maps `bytes` bytes of the file from `position`, in little endian
+    private static ByteBuffer map(
+            FileChannel channel,
+            long position,
+            long bytes) throws IOException
+    {
+        if (bytes > Integer.MAX_VALUE)
+        {
+            throw new IOException(
+                    "a section of " + bytes + " bytes can not be mapped");
+        }
+
+        return channel
+                .map(FileChannel.MapMode.READ_ONLY, position, bytes)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int keyType(IndexedGraph<?> graph)
+    {
+        boolean integers = true;
+        boolean strings = true;
+
+        for (int id = 0; id < graph.nodes(); id++)
+        {
+            Object key = graph.key(id);
+
+            integers &= key instanceof Integer;
+            strings &= key instanceof String;
+        }
+
+        if (!integers && !strings)
+        {
+            throw new IllegalArgumentException(
+                    "only graphs of Integer or String keys can be written");
+        }
+
+        return integers ? INTEGER_KEYS : STRING_KEYS;
+    }
+
+    private static void writeEdges(
+            Output out,
+            long offsets,
+            IndexedGraph<?> graph) throws IOException
+    {
+        int nodes = graph.nodes();
+        int edges = graph.edges();
+
+        // the edges of the graph need not start at 0 or follow each other,
+        // so the offsets are counted again
+        out.at(offsets);
+
+        int edge = 0;
+
+        for (int node = 0; node < nodes; node++)
+        {
+            out.putInt(edge);
+            edge += graph.end(node) - graph.begin(node);
+        }
+
+        out.putInt(edge);
+        out.align();
+
+        for (int node = 0; node < nodes; node++)
+        {
+            for (int e = graph.begin(node); e < graph.end(node); e++)
+            {
+                out.putInt(graph.target(e));
+            }
+        }
+
+        out.align();
+
+        for (int node = 0; node < nodes; node++)
+        {
+            for (int e = graph.begin(node); e < graph.end(node); e++)
+            {
+                out.putInt(graph.weight(e));
+            }
+        }
+
+        out.align();
+
+        if (edge != edges)
+        {
+            throw new IllegalArgumentException(
+                    "the graph has " + edge + " edges, not " + edges);
+        }
+    }
+
+    // the identifiers of the nodes, sorted by their keys. strings are sorted
+    // by their UTF-8 bytes, which is the order `stringIds` searches in
+    private static int[] sortedByKey(IndexedGraph<?> graph, byte[][] names)
+    {
+        int nodes = graph.nodes();
+
+        if (names == null)
+        {
+            // the key in the high half and the identifier in the low half
+            long[] pairs = new long[nodes];
+
+            for (int id = 0; id < nodes; id++)
+            {
+                pairs[id] = (long) (Integer) graph.key(id) << 32 | id;
+            }
+
+            Arrays.sort(pairs);
+
+            int[] sorted = new int[nodes];
+
+            for (int i = 0; i < nodes; i++)
+            {
+                sorted[i] = (int) pairs[i];
+            }
+
+            return sorted;
+        }
+
+        return IntStream
+                .range(0, nodes)
+                .boxed()
+                .sorted((a, b) -> Arrays.compareUnsigned(names[a], names[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    // finds integer keys by bisection over the nodes sorted by key
+    private static ToIntFunction<Integer> integerIds(
+            IntBuffer numbers,
+            IntBuffer index)
+    {
+        return key ->
+        {
+            if (key == null)
+            {
+                return -1;
+            }
+
+            int low = 0;
+            int high = index.limit() - 1;
+
+            while (low <= high)
+            {
+                int middle = (low + high) >>> 1;
+                int id = index.get(middle);
+                int compared = Integer.compare(numbers.get(id), key);
+
+                if (compared == 0)
+                {
+                    return id;
+                }
+
+                if (compared < 0)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle - 1;
+                }
+            }
+
+            return -1;
+        };
+    }
+
+    // finds string keys by bisection over the nodes sorted by the UTF-8
+    // bytes of their keys, comparing bytes without decoding any key
+    private static ToIntFunction<String> stringIds(
+            LongBuffer starts,
+            ByteBuffer blob,
+            IntBuffer index)
+    {
+        return key ->
+        {
+            if (key == null)
+            {
+                return -1;
+            }
+
+            byte[] name = key.getBytes(StandardCharsets.UTF_8);
+
+            int low = 0;
+            int high = index.limit() - 1;
+
+            while (low <= high)
+            {
+                int middle = (low + high) >>> 1;
+                int id = index.get(middle);
+                int compared = compare(starts, blob, id, name);
+
+                if (compared == 0)
+                {
+                    return id;
+                }
+
+                if (compared < 0)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle - 1;
+                }
+            }
+
+            return -1;
+        };
+    }
+
+    // compares the bytes of the key of `id` to `name`, as unsigned bytes
+    private static int compare(
+            LongBuffer starts,
+            ByteBuffer blob,
+            int id,
+            byte[] name)
+    {
+        int start = (int) starts.get(id);
+        int length = (int) starts.get(id + 1) - start;
+
+        for (int i = 0; i < Math.min(length, name.length); i++)
+        {
+            int compared = Byte.compareUnsigned(blob.get(start + i), name[i]);
+
+            if (compared != 0)
+            {
+                return compared;
+            }
+        }
+
+        return Integer.compare(length, name.length);
+    }
+
+    private static String string(LongBuffer starts, ByteBuffer blob, int id)
+    {
+        int start = (int) starts.get(id);
+        byte[] name = new byte[(int) starts.get(id + 1) - start];
+
+        blob.get(start, name);
+
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    // where every section of a snapshot starts, following from the header
+    private static class Layout
+    {
+        private final int type;
+        private final int nodes;
+        private final int edges;
+        private final long keyBytes;
+
+        // the checksum of everything after the header
+        private final long checksum;
+
+        private final long offsets;
+        private final long targets;
+        private final long weights;
+        private final long reverseOffsets;
+        private final long reverseTargets;
+        private final long reverseWeights;
+        private final long keys;
+        private final long index;
+        private final long blob;
+        private final long end;
+
+        Layout(int type, int nodes, int edges, long keyBytes, long checksum)
+                throws IOException
+        {
+            if ((type != INTEGER_KEYS && type != STRING_KEYS)
+                    || nodes < 0 || edges < 0 || keyBytes < 0)
+            {
+                throw new IOException("the snapshot header is damaged");
+            }
+
+            this.type = type;
+            this.nodes = nodes;
+            this.edges = edges;
+            this.keyBytes = keyBytes;
+            this.checksum = checksum;
+
+            long offsetBytes = (nodes + 1) * 4L;
+            long edgeBytes = edges * 4L;
+
+            offsets = HEADER;
+            targets = align(offsets + offsetBytes);
+            weights = align(targets + edgeBytes);
+            reverseOffsets = align(weights + edgeBytes);
+            reverseTargets = align(reverseOffsets + offsetBytes);
+            reverseWeights = align(reverseTargets + edgeBytes);
+            keys = align(reverseWeights + edgeBytes);
+            index = align(keys + (type == INTEGER_KEYS
+                    ? nodes * 4L
+                    : (nodes + 1) * 8L));
+            blob = align(index + nodes * 4L);
+            end = align(blob + keyBytes);
+        }
+
+        private static long align(long position)
+        {
+            return (position + 7) & ~7L;
+        }
+    }
+
+    // writes the sections through a buffer, keeping the checksum of
+    // everything written
+    private static class Output
+    {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final CRC32C checksum;
+
+        // the position in the file of the start of the buffer
+        private long position;
+
+        Output(FileChannel channel)
+        {
+            this.channel = channel;
+            this.buffer = ByteBuffer
+                    .allocateDirect(1 << 20)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            this.checksum = new CRC32C();
+            this.position = HEADER;
+        }
+
+        long checksum() { return checksum.getValue(); }
+
+        void putInt(int value) throws IOException
+        {
+            room(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException
+        {
+            room(8);
+            buffer.putLong(value);
+        }
+
+        void put(byte[] bytes) throws IOException
+        {
+            for (int i = 0; i < bytes.length; )
+            {
+                room(1);
+
+                int length = Math.min(bytes.length - i, buffer.remaining());
+                buffer.put(bytes, i, length);
+                i += length;
+            }
+        }
+
+        // pads with zeros up to the next multiple of 8
+        void align() throws IOException
+        {
+            at(Layout.align(position + buffer.position()));
+        }
+
+        // pads with zeros up to `target`, where the next section starts
+        void at(long target) throws IOException
+        {
+            long current = position + buffer.position();
+
+            if (current > target)
+            {
+                throw new IllegalStateException(
+                        "wrote past " + target + " to " + current);
+            }
+
+            for (; current < target; current++)
+            {
+                room(1);
+                buffer.put((byte) 0);
+            }
+        }
+
+        // writes the buffer if it has less than `bytes` bytes of room
+        private void room(int bytes) throws IOException
+        {
+            if (buffer.remaining() < bytes)
+            {
+                flush();
+            }
+        }
+
+        void flush() throws IOException
+        {
+            buffer.flip();
+
+            checksum.update(buffer.duplicate());
+
+            while (buffer.hasRemaining())
+            {
+                position += channel.write(buffer, position);
+            }
+
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        Heuristic.java contains the definition for estimates of the distance
+        between two nodes of an IndexedGraph, used to direct a shortest path
+        search towards its goal.
+    Usage:
+        Pass an implementation to the A* overloads of `ShortestPath.search`.
+        The estimate must never be larger than the real distance, or the path
+        found might not be the shortest.
+ */
+
+public interface Heuristic
+{
+    // a lower bound on the distance from `node` to `goal`, both given by
+    // their dense identifiers
+    long estimate(int node, int goal);
+}
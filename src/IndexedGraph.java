@@ -0,0 +1,47 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        IndexedGraph.java contains the definition for graphs whose nodes are
+        numbered densely from 0 to nodes() - 1, and whose edges are numbered so
+        that all edges leaving a node form one contiguous range.
+    Usage:
+        IndexedGraph.java should only be used for other ADT's or algorithms.
+        The neighbours of `node` are visited by:
+            for (int e = graph.begin(node); e < graph.end(node); e++)
+            {
+                graph.target(e), graph.weight(e)
+            }
+ */
+
+public interface IndexedGraph<Key>
+{
+    // amount of nodes in the graph
+    int nodes();
+
+    // amount of (unidirectional) edges in the graph
+    int edges();
+
+    // the dense identifier of the given key, or -1 if it is not in the graph
+    int id(Key key);
+
+    // the key of the given dense identifier
+    Key key(int id);
+
+    // the first edge leaving `node`
+    int begin(int node);
+
+    // one past the last edge leaving `node`
+    int end(int node);
+
+    // the node the given edge leads to
+    int target(int edge);
+
+    // the weight of the given edge
+    int weight(int edge);
+
+    // the graph with every edge turned around, using the same identifiers.
+    // the edges leaving a node in the reverse are the edges entering it here
+    IndexedGraph<Key> reverse();
+}
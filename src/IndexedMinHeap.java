@@ -0,0 +1,234 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        IndexedMinHeap.java is a d-ary min-heap over the integers 0 to
+        capacity - 1, each with a long priority. Since the position of every
+        identifier within the heap is known, the priority of an identifier
+        already in the heap can be lowered in O(log n), which is the
+        decrease-key operation needed by Dijkstra's algorithm.
+    Usage:
+        IndexedMinHeap.java should only be used for other ADT's or algorithms.
+        All storage is primitive arrays allocated up front, so no operation
+        allocates unless the heap is grown.
+ */
+
+import java.util.Arrays;
+
+public class IndexedMinHeap
+{
+    // amount of children per node, four keeps the tree shallow while the
+    // children of a node still share a cache line
+    private static final int ARITY = 4;
+
+    // the identifiers in heap order and their priorities, at the same index
+    private int[] heap;
+    private long[] priorities;
+
+    // the index within `heap` of every identifier, -1 if not in the heap
+    private int[] position;
+
+    private int size;
+
+    public IndexedMinHeap(int capacity)
+    {
+        heap = new int[capacity];
+        priorities = new long[capacity];
+        position = new int[capacity];
+
+        Arrays.fill(position, -1);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // the identifiers `0` to `capacity() - 1` can be put in the heap
+    public int capacity() { return position.length; }
+
+    // checks if the given identifier is in the heap
+    public boolean contains(int id)
+    {
+        return position[id] >= 0;
+    }
+
+    // the priority of an identifier in the heap
+    public long priority(int id)
+    {
+        return priorities[position[id]];
+    }
+
+    // the identifier with the lowest priority, without removing it
+    public int peek()
+    {
+        return heap[0];
+    }
+
+    // the lowest priority in the heap
+    public long peekPriority()
+    {
+        return priorities[0];
+    }
+
+    // adds an identifier that is not already in the heap
+    public void insert(int id, long priority)
+    {
+        heap[size] = id;
+        priorities[size] = priority;
+        position[id] = size;
+
+        size++;
+
+        siftUp(size - 1);
+    }
+
+    // lowers the priority of an identifier already in the heap
+    public void decreaseKey(int id, long priority)
+    {
+        int index = position[id];
+
+        priorities[index] = priority;
+        siftUp(index);
+    }
+
+    // inserts the identifier or, if it is already in the heap, lowers its
+    // priority if the given one is lower. returns if the heap was changed
+    public boolean offer(int id, long priority)
+    {
+        if (position[id] < 0)
+        {
+            insert(id, priority);
+            return true;
+        }
+
+        if (priority < priorities[position[id]])
+        {
+            decreaseKey(id, priority);
+            return true;
+        }
+
+        return false;
+    }
+
+    // removes and returns the identifier with the lowest priority
+    public int removeMin()
+    {
+        int min = heap[0];
+        position[min] = -1;
+
+        size--;
+
+        // move the last element to the root and let it sink down
+        if (size > 0)
+        {
+            heap[0] = heap[size];
+            priorities[0] = priorities[size];
+            position[heap[0]] = 0;
+
+            siftDown(0);
+        }
+
+        return min;
+    }
+
+    // empties the heap, only the identifiers still in the heap are touched
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            position[heap[i]] = -1;
+        }
+
+        size = 0;
+    }
+
+    // lets the heap hold the identifiers `0` to `capacity - 1`
+    public void grow(int capacity)
+    {
+        if (capacity <= position.length)
+        {
+            return;
+        }
+
+        int previous = position.length;
+
+        heap = Arrays.copyOf(heap, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        position = Arrays.copyOf(position, capacity);
+
+        Arrays.fill(position, previous, capacity, -1);
+    }
+
+    // moves the element at `index` up until its parent is not larger
+    private void siftUp(int index)
+    {
+        int id = heap[index];
+        long priority = priorities[index];
+
+        while (index > 0)
+        {
+            int parent = (index - 1) / ARITY;
+
+            if (priorities[parent] <= priority)
+            {
+                break;
+            }
+
+            // move the parent down into the hole
+            heap[index] = heap[parent];
+            priorities[index] = priorities[parent];
+            position[heap[index]] = index;
+
+            index = parent;
+        }
+
+        heap[index] = id;
+        priorities[index] = priority;
+        position[id] = index;
+    }
+
+    // moves the element at `index` down until no child is smaller
+    private void siftDown(int index)
+    {
+        int id = heap[index];
+        long priority = priorities[index];
+
+        while (true)
+        {
+            int first = index * ARITY + 1;
+
+            if (first >= size)
+            {
+                break;
+            }
+
+            // find the smallest child
+            int last = Math.min(first + ARITY, size);
+            int smallest = first;
+
+            for (int child = first + 1; child < last; child++)
+            {
+                if (priorities[child] < priorities[smallest])
+                {
+                    smallest = child;
+                }
+            }
+
+            if (priorities[smallest] >= priority)
+            {
+                break;
+            }
+
+            // move the child up into the hole
+            heap[index] = heap[smallest];
+            priorities[index] = priorities[smallest];
+            position[heap[index]] = index;
+
+            index = smallest;
+        }
+
+        heap[index] = id;
+        priorities[index] = priority;
+        position[id] = index;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        IntIntHashMap.java maps int keys to int values without boxing either.
+        The keys and values are kept in two primitive arrays with open
+        addressing and linear probing, so a lookup is a few array reads and
+        nothing is allocated except when the table grows.
+    Usage:
+        Create a map with the value to return for missing keys:
+            IntIntHashMap map = new IntIntHashMap(-1);
+            map.put(key, value);
+            map.get(key);
+ */
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class IntIntHashMap
+{
+    // the keys and values in each slot, a slot is empty if it is not marked
+    // in `used`, since any int can be a key
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    // returned by `get` for keys that are not in the map
+    private final int missing;
+
+    public IntIntHashMap(int missing)
+    {
+        this(missing, 16);
+    }
+
+    // pre-sizes the map for the expected amount of keys
+    public IntIntHashMap(int missing, int expectedKeys)
+    {
+        int capacity =
+                Integer.highestOneBit(Math.max(16, expectedKeys) * 2 - 1) * 2;
+
+        this.missing = missing;
+
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    // amount of keys
+    public int size() { return size; }
+
+    // checks if the key is in the map
+    public boolean containsKey(int key)
+    {
+        return used[slot(key)];
+    }
+
+    // the value of the key, or the missing value given to the constructor
+    public int get(int key)
+    {
+        int slot = slot(key);
+
+        return used[slot] ? values[slot] : missing;
+    }
+
+    // sets the value of the key and returns its previous value, or the
+    // missing value if it had none
+    public int put(int key, int value)
+    {
+        int slot = slot(key);
+
+        if (used[slot])
+        {
+            int previous = values[slot];
+            values[slot] = value;
+
+            return previous;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+
+        // keep the table at most half full so probes stay short
+        if (++size * 2 > keys.length)
+        {
+            rehash();
+        }
+
+        return missing;
+    }
+
+    // calls the consumer with every key, in no particular order
+    public void forEachKey(IntConsumer consumer)
+    {
+        for (int slot = 0; slot < keys.length; slot++)
+        {
+            if (used[slot])
+            {
+                consumer.accept(keys[slot]);
+            }
+        }
+    }
+
+    // removes every key, keeping the capacity
+    public void clear()
+    {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    // the slot of the key, or the empty slot where it would be put
+    private int slot(int key)
+    {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (used[slot] && keys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void rehash()
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        keys = new int[oldKeys.length * 2];
+        values = new int[keys.length];
+        used = new boolean[keys.length];
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldUsed[i])
+            {
+                int slot = slot(oldKeys[i]);
+
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                used[slot] = true;
+            }
+        }
+    }
+
+    // spreads the bits of the key, consecutive keys would otherwise fill
+    // consecutive slots
+    private static int mix(int key)
+    {
+        int hash = key * 0x9E3779B9;
+
+        return hash ^ (hash >>> 16);
+    }
+}
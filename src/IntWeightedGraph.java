@@ -0,0 +1,279 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        IntWeightedGraph.java is the WeightedAdjacencyList of graphs whose
+        nodes are ints, without a single boxed Integer. The keys are found
+        through an IntIntHashMap, and the edges of every node are kept in two
+        growing int arrays, one for the targets and one for the weights,
+        instead of a list of KeyValuePairs.
+
+        Nodes are given dense identifiers in the order they are added, and
+        the edges refer to those identifiers, so searches can scan the arrays
+        of a node directly. The overloads of BFS, DFS, ShortestPath, and
+        PathExists for this graph take the keys as ints, write the path to an
+        int array, and keep their state in a SearchContext, so once the
+        context has grown to the size of the graph a search allocates nothing.
+    Usage:
+        Build the graph like a WeightedAdjacencyList, nodes are added by the
+        edges that need them:
+            IntWeightedGraph graph = new IntWeightedGraph();
+            graph.addBiEdge(1, 2, 5, 5);
+
+        Search it with a context and an array for the path:
+            int[] path = new int[graph.nodes()];
+            int length = ShortestPath.search(graph, 1, 2, context, path);
+
+        Requires `IntIntHashMap.java`, `SearchContext.java`, and
+        `CompressedGraph.java` to function.
+ */
+
+import java.util.Arrays;
+
+public class IntWeightedGraph
+{
+    // the smallest capacity of the edge arrays of a node
+    private static final int MIN_DEGREE = 4;
+
+    // key to dense identifier and dense identifier to key
+    private final IntIntHashMap ids;
+    private int[] keys;
+
+    // the edges of node i are the first degree[i] entries of targets[i] and
+    // weights[i], the targets being dense identifiers
+    private int[][] targets;
+    private int[][] weights;
+    private int[] degree;
+
+    private int nodes;
+    private int edges;
+
+    // incremented every time a node or edge is added, so that structures
+    // built from the graph can tell that they are out of date
+    private int version;
+
+    // set once an edge is added in one direction only
+    private boolean directed;
+
+    public IntWeightedGraph()
+    {
+        this(16);
+    }
+
+    // pre-sizes the graph for the expected amount of nodes
+    public IntWeightedGraph(int expectedNodes)
+    {
+        int capacity = Math.max(16, expectedNodes);
+
+        ids = new IntIntHashMap(-1, capacity);
+        keys = new int[capacity];
+        targets = new int[capacity][];
+        weights = new int[capacity][];
+        degree = new int[capacity];
+    }
+
+    public int nodes() { return nodes; }
+    public int edges() { return edges; }
+    public int version() { return version; }
+
+    // checks if any edge was added through `addEdge` rather than `addBiEdge`,
+    // otherwise every edge has a counterpart in the other direction
+    public boolean isDirected() { return directed; }
+
+    // the dense identifier of the key, or -1 if it is not in the graph
+    public int id(int key) { return ids.get(key); }
+
+    // the key of the given dense identifier
+    public int key(int id) { return keys[id]; }
+
+    // amount of edges leaving the node with the given dense identifier
+    public int degree(int id) { return degree[id]; }
+
+    // the targets and weights of the edges leaving the node, valid in the
+    // first `degree(id)` entries. the arrays are replaced when they grow,
+    // so they must be asked for again after edges are added
+    public int[] targets(int id) { return targets[id]; }
+    public int[] weights(int id) { return weights[id]; }
+
+    // checks if the specified node is contained within the graph
+    public boolean contains(int key)
+    {
+        return ids.containsKey(key);
+    }
+
+    // adds the node if it is not already in the graph, and returns its dense
+    // identifier
+    public int addNode(int key)
+    {
+        int id = ids.get(key);
+
+        if (id >= 0)
+        {
+            return id;
+        }
+
+        id = nodes;
+
+        if (id == keys.length)
+        {
+            int capacity = id * 2;
+
+            keys = Arrays.copyOf(keys, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+        }
+
+        ids.put(key, id);
+        keys[id] = key;
+        targets[id] = new int[MIN_DEGREE];
+        weights[id] = new int[MIN_DEGREE];
+
+        nodes++;
+        version++;
+
+        return id;
+    }
+
+    // adds a unidirectional edge from node a to node b, with the given
+    // weight. nodes that are not in the graph yet are added
+    public void addEdge(
+            int a,
+            int b,
+            int weight)
+    {
+        directed = true;
+
+        addEdgeBetween(addNode(a), addNode(b), weight);
+    }
+
+    // adds a unidirectional edge from node a to node b, with no weight
+    public void addEdge(
+            int a,
+            int b)
+    {
+        addEdge(a, b, 0);
+    }
+
+    // adds a bidirectional edge between A and B, with the weights from A to
+    // B and B to A, respectively
+    public void addBiEdge(
+            int a,
+            int b,
+            int weightAB,
+            int weightBA)
+    {
+        int tail = addNode(a);
+        int head = addNode(b);
+
+        addEdgeBetween(tail, head, weightAB);
+        addEdgeBetween(head, tail, weightBA);
+    }
+
+    // adds a bidirectional edge between A and B, with no weights in between
+    public void addBiEdge(
+            int a,
+            int b)
+    {
+        addBiEdge(a, b, 0, 0);
+    }
+
+    // adds a unidirectional edge between the nodes with the given dense
+    // identifiers, as returned by `addNode`, without marking the graph as
+    // directed. loaders use it to add both halves of bidirectional edges
+    public void addEdgeBetween(
+            int tail,
+            int head,
+            int weight)
+    {
+        int count = degree[tail];
+
+        if (count == targets[tail].length)
+        {
+            targets[tail] = Arrays.copyOf(targets[tail], count * 2);
+            weights[tail] = Arrays.copyOf(weights[tail], count * 2);
+        }
+
+        targets[tail][count] = head;
+        weights[tail][count] = weight;
+        degree[tail] = count + 1;
+
+        edges++;
+        version++;
+    }
+
+    // checks if given (unidirectional) edge is contained within the graph
+    public boolean containsEdge(
+            int tail,
+            int head)
+    {
+        int from = ids.get(tail);
+        int to = ids.get(head);
+
+        if (from < 0 || to < 0)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < degree[from]; i++)
+        {
+            if (targets[from][i] == to)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // follows the previous nodes of `end` in `context` back to the node
+    // without one, writing their keys to the start of `path` in order from
+    // that node to `end`. returns the amount of keys written
+    public int path(
+            SearchContext context,
+            int end,
+            int[] path)
+    {
+        int length = 0;
+
+        for (int current = end; current >= 0;
+             current = context.previous(current))
+        {
+            path[length++] = keys[current];
+        }
+
+        // the keys were written from the end, reverse them in place
+        for (int i = 0, j = length - 1; i < j; i++, j--)
+        {
+            int swap = path[i];
+            path[i] = path[j];
+            path[j] = swap;
+        }
+
+        return length;
+    }
+
+    // freezes the graph, the nodes keep their dense identifiers and the edges
+    // of every node keep their order
+    public CompressedGraph<Integer> freeze()
+    {
+        CompressedGraph.Builder<Integer> builder =
+                new CompressedGraph.Builder<>(nodes, edges);
+
+        for (int id = 0; id < nodes; id++)
+        {
+            builder.addNode(keys[id]);
+        }
+
+        for (int id = 0; id < nodes; id++)
+        {
+            for (int i = 0; i < degree[id]; i++)
+            {
+                builder.addEdgeBetween(id, targets[id][i], weights[id][i]);
+            }
+        }
+
+        return builder.build();
+    }
+}
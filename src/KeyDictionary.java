@@ -0,0 +1,164 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        KeyDictionary.java gives every key a dense identifier, 0 for the first
+        key added, 1 for the second, and so on, so that the algorithms can
+        work on ints and only turn them back into keys for the caller.
+
+        The keys are kept in an open addressing table of primitive arrays,
+        together with the hash of every key, so a lookup compares cached
+        hashes before it ever calls `equals`, and no entry objects or boxed
+        identifiers are created the way a HashMap<Key, Integer> would.
+    Usage:
+        Add the keys once, when the graph is built, and translate at the
+        boundaries of the algorithms:
+            KeyDictionary<Key> keys = new KeyDictionary<>();
+            int id = keys.add(key);
+            keys.id(key) == id
+            keys.key(id) == key
+ */
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class KeyDictionary<Key>
+{
+    // identifier + 1 of the key in each slot, 0 for an empty slot
+    private int[] slots;
+
+    // the key and the hash of the key of every identifier
+    private Object[] keys;
+    private int[] hashes;
+    private int size;
+
+    public KeyDictionary()
+    {
+        this(16);
+    }
+
+    // pre-sizes the dictionary for the expected amount of keys
+    public KeyDictionary(int expectedKeys)
+    {
+        int capacity = Math.max(16, expectedKeys);
+
+        slots = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+    }
+
+    private KeyDictionary(KeyDictionary<Key> other)
+    {
+        slots = other.slots.clone();
+        keys = Arrays.copyOf(other.keys, Math.max(16, other.size));
+        hashes = Arrays.copyOf(other.hashes, keys.length);
+        size = other.size;
+    }
+
+    // amount of keys
+    public int size() { return size; }
+
+    // the key with the given identifier
+    @SuppressWarnings("unchecked")
+    public Key key(int id) { return (Key) keys[id]; }
+
+    // checks if the key has been added
+    public boolean contains(Key key)
+    {
+        return id(key) >= 0;
+    }
+
+    // the identifier of the key, or -1 if it has not been added
+    public int id(Key key)
+    {
+        int hash = hash(key);
+        int mask = slots.length - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask)
+        {
+            int id = slots[slot] - 1;
+
+            if (id < 0)
+            {
+                return -1;
+            }
+
+            if (hashes[id] == hash && Objects.equals(keys[id], key))
+            {
+                return id;
+            }
+        }
+    }
+
+    // the identifier of the key, which is given the next identifier if it
+    // has not been added before
+    public int add(Key key)
+    {
+        int hash = hash(key);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+
+        for (; slots[slot] != 0; slot = (slot + 1) & mask)
+        {
+            int id = slots[slot] - 1;
+
+            if (hashes[id] == hash && Objects.equals(keys[id], key))
+            {
+                return id;
+            }
+        }
+
+        if (size == keys.length)
+        {
+            keys = Arrays.copyOf(keys, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+
+        keys[size] = key;
+        hashes[size] = hash;
+        slots[slot] = size + 1;
+
+        // keep the table at most half full so probes stay short
+        if (++size * 2 > slots.length)
+        {
+            rehash();
+        }
+
+        return size - 1;
+    }
+
+    // a dictionary with the same keys and identifiers, which can be added to
+    // without changing this one
+    public KeyDictionary<Key> copy()
+    {
+        return new KeyDictionary<>(this);
+    }
+
+    private void rehash()
+    {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+
+        for (int id = 0; id < size; id++)
+        {
+            int slot = hashes[id] & mask;
+
+            while (slots[slot] != 0)
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = id + 1;
+        }
+    }
+
+    // the hash of the key with its high bits folded into the low ones, which
+    // are the ones that pick the slot
+    private static int hash(Object key)
+    {
+        int hash = Objects.hashCode(key);
+
+        return hash ^ (hash >>> 16);
+    }
+}
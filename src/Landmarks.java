@@ -0,0 +1,244 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        Landmarks.java is the preprocessing for the ALT (A*, landmarks, and the
+        triangle inequality) heuristic. A few landmark nodes are picked and the
+        distances from every landmark to every node, and from every node to
+        every landmark, are stored. By the triangle inequality, for a node v,
+        a goal t, and a landmark L:
+            d(v, t) >= d(L, t) - d(L, v)
+            d(v, t) >= d(v, L) - d(t, L)
+        and the largest of these bounds is used as the estimate.
+    Usage:
+        Select the landmarks once per graph and pass them to the A* overloads
+        of `ShortestPath.search`:
+            Landmarks landmarks = Landmarks.select(graph, 16);
+            ShortestPath.search(graph, from, to, landmarks);
+
+        The tables can be written with `save` and read back with `load`, so
+        they do not have to be computed again for the same graph.
+
+        Requires `IndexedGraph.java`, `Heuristic.java`, `SearchContext.java`,
+        and `ShortestPath.java` to function.
+ */
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class Landmarks implements Heuristic
+{
+    // identifies the file format and its version
+    private static final int MAGIC = 0x414C5401;
+
+    // the dense identifiers of the landmarks
+    private final int[] landmarks;
+
+    // fromLandmark[i][v] is the distance from landmark i to node v and
+    // toLandmark[i][v] the distance from node v to landmark i
+    private final long[][] fromLandmark;
+    private final long[][] toLandmark;
+
+    private Landmarks(
+            int[] landmarks,
+            long[][] fromLandmark,
+            long[][] toLandmark)
+    {
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    // amount of landmarks
+    public int size() { return landmarks.length; }
+
+    // the dense identifier of the i:th landmark
+    public int landmark(int i) { return landmarks[i]; }
+
+    // picks `count` landmarks through farthest selection: each new landmark
+    // is the node farthest from the landmarks picked before it, which spreads
+    // them out towards the edges of the graph where their bounds are best
+    public static Landmarks select(IndexedGraph<?> graph, int count)
+    {
+        count = Math.min(count, graph.nodes());
+
+        int[] landmarks = new int[count];
+        long[][] fromLandmark = new long[count][];
+        long[][] toLandmark = new long[count][];
+
+        // the distance from each node to its closest landmark so far
+        long[] closest = new long[graph.nodes()];
+
+        // the first landmark is the node farthest away from node 0
+        if (count > 0)
+        {
+            System.arraycopy(
+                    ShortestPath.distances(graph, 0),
+                    0,
+                    closest,
+                    0,
+                    closest.length);
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            // nodes not reached by any landmark count as the farthest, so
+            // that every part of a disconnected graph gets a landmark
+            int farthest = 0;
+            for (int v = 1; v < closest.length; v++)
+            {
+                if (closest[v] > closest[farthest])
+                {
+                    farthest = v;
+                }
+            }
+
+            landmarks[i] = farthest;
+            fromLandmark[i] = ShortestPath.distances(graph, farthest);
+            toLandmark[i] = ShortestPath.distances(graph.reverse(), farthest);
+
+            // the first landmark replaces node 0 as the point of reference
+            if (i == 0)
+            {
+                System.arraycopy(
+                        fromLandmark[i],
+                        0,
+                        closest,
+                        0,
+                        closest.length);
+            }
+            else
+            {
+                for (int v = 0; v < closest.length; v++)
+                {
+                    closest[v] = Math.min(closest[v], fromLandmark[i][v]);
+                }
+            }
+
+            // a node is never picked twice
+            closest[farthest] = -1;
+            for (int j = 0; j < i; j++)
+            {
+                closest[landmarks[j]] = -1;
+            }
+        }
+
+        return new Landmarks(landmarks, fromLandmark, toLandmark);
+    }
+
+    @Override
+    public long estimate(int node, int goal)
+    {
+        long best = 0;
+
+        for (int i = 0; i < landmarks.length; i++)
+        {
+            long[] from = fromLandmark[i];
+            long[] to = toLandmark[i];
+
+            // d(v, t) >= d(L, t) - d(L, v), if L reaches v at all
+            if (from[node] != SearchContext.UNREACHED
+                    && from[goal] != SearchContext.UNREACHED)
+            {
+                best = Math.max(best, from[goal] - from[node]);
+            }
+
+            // d(v, t) >= d(v, L) - d(t, L), if t reaches L at all
+            if (to[node] != SearchContext.UNREACHED
+                    && to[goal] != SearchContext.UNREACHED)
+            {
+                best = Math.max(best, to[node] - to[goal]);
+            }
+        }
+
+        return best;
+    }
+
+    // writes the landmarks and their distance tables to the given file
+    public void save(Path file) throws IOException
+    {
+        try (DataOutputStream out =
+                     new DataOutputStream(
+                             new BufferedOutputStream(
+                                     Files.newOutputStream(file),
+                                     1 << 16)))
+        {
+            int nodes = landmarks.length == 0 ? 0 : fromLandmark[0].length;
+
+            out.writeInt(MAGIC);
+            out.writeInt(nodes);
+            out.writeInt(landmarks.length);
+
+            for (int i = 0; i < landmarks.length; i++)
+            {
+                out.writeInt(landmarks[i]);
+
+                for (int v = 0; v < nodes; v++)
+                {
+                    out.writeLong(fromLandmark[i][v]);
+                }
+
+                for (int v = 0; v < nodes; v++)
+                {
+                    out.writeLong(toLandmark[i][v]);
+                }
+            }
+        }
+    }
+
+    // reads landmarks written by `save` for the given graph
+    public static Landmarks load(
+            Path file,
+            IndexedGraph<?> graph) throws IOException
+    {
+        try (DataInputStream in =
+                     new DataInputStream(
+                             new BufferedInputStream(
+                                     Files.newInputStream(file),
+                                     1 << 16)))
+        {
+            if (in.readInt() != MAGIC)
+            {
+                throw new IOException(file + " is not a landmark file");
+            }
+
+            int nodes = in.readInt();
+            int count = in.readInt();
+
+            // tables for another graph would give bounds that are not lower
+            // bounds, and so wrong paths
+            if (count > 0 && nodes != graph.nodes())
+            {
+                throw new IOException(
+                        String.format(
+                                "%s has landmarks for %d nodes, not %d",
+                                file,
+                                nodes,
+                                graph.nodes()));
+            }
+
+            int[] landmarks = new int[count];
+            long[][] fromLandmark = new long[count][nodes];
+            long[][] toLandmark = new long[count][nodes];
+
+            for (int i = 0; i < count; i++)
+            {
+                landmarks[i] = in.readInt();
+
+                for (int v = 0; v < nodes; v++)
+                {
+                    fromLandmark[i][v] = in.readLong();
+                }
+
+                for (int v = 0; v < nodes; v++)
+                {
+                    toLandmark[i][v] = in.readLong();
+                }
+            }
+
+            return new Landmarks(landmarks, fromLandmark, toLandmark);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/10/02
-    Updated: 2020/10/06
+    Updated: 2026/10/17
     Purpose:
         Node.java contains the definition for a graph node ADT, as well as an
         additional field for weighted path finders. It also contains a
@@ -19,6 +19,10 @@ public class Node<Key>
     public Key identifier;
     public int distance;
 
+    // the position of the node within its graph, nodes are numbered from 0
+    // in the order they were added
+    public int index;
+
     // list of adjacent nodes, which are represented by the target
     // node and the weighted edge to that node
     public LinkedList<KeyValuePair<Node<Key>, Integer>> adjacent;
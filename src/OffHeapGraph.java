@@ -0,0 +1,492 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        OffHeapGraph.java is an adjacency list, with the same operations as
+        WeightedAdjacencyList, that keeps its nodes and edges outside of the
+        Java heap. The garbage collector only sees the keys and a handful of
+        buffers, no matter how many edges the graph holds, so it has nothing
+        to trace or move while the graph grows.
+
+        The edges are kept in direct ByteBuffers of ARENA_SIZE bytes, the
+        arenas, which are handed out in blocks by bumping an offset. The edges
+        of a node are a chain of blocks, each twice the size of the one before
+        it, so adding an edge never copies the edges before it. Every node has
+        an entry in a table of direct ByteBuffers as well, holding the first
+        and last block of its chain and its degree. Blocks and entries are
+        addressed by longs, the arena in the high bits and the offset in the
+        low ones.
+
+        The keys are given dense identifiers by a KeyDictionary, the only part
+        of the graph on the heap. Searches run on the frozen graph, a
+        BufferGraph whose arrays are direct buffers as well.
+    Usage:
+        Build the graph like a WeightedAdjacencyList, and freeze it to search
+        it:
+            OffHeapGraph<Integer> graph = new OffHeapGraph<>();
+            graph.addBiEdge(1, 2, 5, 5);
+            ShortestPath.search(graph.freeze(), 1, 2);
+
+        Direct buffers are limited by `-XX:MaxDirectMemorySize`, which
+        defaults to the maximum size of the heap, so it has to be raised for
+        graphs larger than the heap.
+
+        Requires `KeyDictionary.java` and `BufferGraph.java` to function.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class OffHeapGraph<Key> implements Iterable<Key>
+{
+    // every arena is ARENA_SIZE bytes, blocks are addressed by the index of
+    // their arena shifted by ARENA_BITS plus their offset in it
+    private static final int ARENA_BITS = 26;
+    private static final int ARENA_SIZE = 1 << ARENA_BITS;
+
+    // the entries of the nodes, NODE_PAGE of them in every buffer of the
+    // table, with the addresses of the first and last block, and the degree
+    private static final int NODE_BITS = 16;
+    private static final int NODE_PAGE = 1 << NODE_BITS;
+    private static final int NODE_BYTES = 24;
+    private static final int FIRST = 0;
+    private static final int LAST = 8;
+    private static final int DEGREE = 16;
+
+    // a block is the address of the next block, its capacity and the amount
+    // of edges in it, followed by the target and weight of every edge
+    private static final int BLOCK_HEADER = 16;
+    private static final int NEXT = 0;
+    private static final int CAPACITY = 8;
+    private static final int COUNT = 12;
+    private static final int EDGE_BYTES = 8;
+
+    // the capacity of the first block of a node and the largest capacity a
+    // block grows to
+    private static final int MIN_BLOCK = 4;
+    private static final int MAX_BLOCK = 1 << 16;
+
+    // the address of no block
+    private static final long NONE = -1;
+
+    private final KeyDictionary<Key> ids;
+
+    private ByteBuffer[] table = new ByteBuffer[16];
+
+    // the arenas and the bytes handed out of the last one
+    private ByteBuffer[] arenas = new ByteBuffer[16];
+    private int arenaCount;
+    private int arenaUsed = ARENA_SIZE;
+
+    private int nodes;
+    private long edges;
+
+    // incremented every time a node or edge is added, so that structures
+    // built from the graph can tell that they are out of date
+    private int version;
+
+    // set once an edge is added in one direction only
+    private boolean directed;
+
+    public OffHeapGraph()
+    {
+        this(16);
+    }
+
+    // pre-sizes the dictionary of keys for the expected amount of nodes
+    public OffHeapGraph(int expectedNodes)
+    {
+        ids = new KeyDictionary<>(expectedNodes);
+    }
+
+    public long edges() { return edges; }
+    public int nodes() { return nodes; }
+    public int version() { return version; }
+
+    // checks if any edge was added through `addEdge` rather than `addBiEdge`,
+    // otherwise every edge has a counterpart in the other direction
+    public boolean isDirected() { return directed; }
+
+    // the dense identifier of the node, in place of the Node that
+    // WeightedAdjacencyList returns, or -1 if it is not in the graph
+    public int id(Key node)
+    {
+        return ids.id(node);
+    }
+
+    // the key of the node with the given dense identifier
+    public Key key(int id)
+    {
+        return ids.key(id);
+    }
+
+    // amount of edges leaving the node with the given dense identifier
+    public int degree(int id)
+    {
+        return table[id >>> NODE_BITS].getInt(entry(id) + DEGREE);
+    }
+
+    // add the node to the graph, unless it already is in the graph
+    public void addNode(Key node)
+    {
+        id(node, true);
+    }
+
+    // adds a unidirectional edge from node a to node b, with the given
+    // weight. nodes that are not in the graph yet are added
+    public void addEdge(
+            Key a,
+            Key b,
+            int weight)
+    {
+        directed = true;
+
+        append(id(a, true), id(b, true), weight);
+    }
+
+    // adds a unidirectional edge from node a to node b, with no weight
+    public void addEdge(
+            Key a,
+            Key b)
+    {
+        addEdge(a, b, 0);
+    }
+
+    // adds a bidirectional edge between A and B, with the weights from A to
+    // B and B to A, respectively
+    public void addBiEdge(
+            Key a,
+            Key b,
+            int weightAB,
+            int weightBA)
+    {
+        int tail = id(a, true);
+        int head = id(b, true);
+
+        append(tail, head, weightAB);
+        append(head, tail, weightBA);
+    }
+
+    // adds a bidirectional edge between A and B, with no weights in between
+    public void addBiEdge(
+            Key a,
+            Key b)
+    {
+        addBiEdge(a, b, 0, 0);
+    }
+
+    // checks if the specified node is contained within the graph
+    public boolean contains(
+            Key node)
+    {
+        return ids.contains(node);
+    }
+
+    // checks if given (unidirectional) edge is contained within the graph
+    public boolean containsEdge(
+            Key tail,
+            Key head)
+    {
+        int from = ids.id(tail);
+        int to = ids.id(head);
+
+        if (from < 0 || to < 0)
+        {
+            return false;
+        }
+
+        // go through the blocks of the tail and check if one of their edges
+        // leads to the head
+        for (long block = first(from); block != NONE; block = next(block))
+        {
+            ByteBuffer arena = arena(block);
+            int offset = offset(block) + BLOCK_HEADER;
+            int end =
+                    offset
+                    + arena.getInt(offset(block) + COUNT) * EDGE_BYTES;
+
+            for (; offset < end; offset += EDGE_BYTES)
+            {
+                if (arena.getInt(offset) == to)
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // copies the graph into a BufferGraph over direct buffers, which can be
+    // searched by every algorithm taking an IndexedGraph. nodes and edges
+    // added afterwards are not in the frozen graph
+    public BufferGraph<Key> freeze()
+    {
+        // an IntBuffer is indexed by ints and a direct buffer is at most
+        // Integer.MAX_VALUE bytes
+        if (edges > Integer.MAX_VALUE / Integer.BYTES)
+        {
+            throw new IllegalStateException(
+                    "too many edges to freeze: " + edges);
+        }
+
+        int count = nodes;
+
+        IntBuffer offsets = ints(count + 1);
+        IntBuffer targets = ints((int) edges);
+        IntBuffer weights = ints((int) edges);
+
+        IntBuffer reverseOffsets = ints(count + 1);
+        IntBuffer reverseTargets = ints((int) edges);
+        IntBuffer reverseWeights = ints((int) edges);
+
+        // lay the chains out after each other, counting the edges entering
+        // every node one entry ahead of it
+        int edge = 0;
+
+        for (int node = 0; node < count; node++)
+        {
+            offsets.put(node, edge);
+
+            for (long block = first(node); block != NONE; block = next(block))
+            {
+                ByteBuffer arena = arena(block);
+                int offset = offset(block) + BLOCK_HEADER;
+                int end =
+                        offset
+                        + arena.getInt(offset(block) + COUNT) * EDGE_BYTES;
+
+                for (; offset < end; offset += EDGE_BYTES, edge++)
+                {
+                    int target = arena.getInt(offset);
+
+                    targets.put(edge, target);
+                    weights.put(edge, arena.getInt(offset + Integer.BYTES));
+
+                    reverseOffsets.put(
+                            target + 1,
+                            reverseOffsets.get(target + 1) + 1);
+                }
+            }
+        }
+
+        offsets.put(count, edge);
+
+        for (int node = 0; node < count; node++)
+        {
+            reverseOffsets.put(
+                    node + 1,
+                    reverseOffsets.get(node + 1) + reverseOffsets.get(node));
+        }
+
+        // place every edge at the next free position of its target
+        IntBuffer cursor = ints(count);
+
+        for (int node = 0; node < count; node++)
+        {
+            cursor.put(node, reverseOffsets.get(node));
+        }
+
+        for (int node = 0; node < count; node++)
+        {
+            for (int e = offsets.get(node); e < offsets.get(node + 1); e++)
+            {
+                int target = targets.get(e);
+                int position = cursor.get(target);
+
+                cursor.put(target, position + 1);
+                reverseTargets.put(position, node);
+                reverseWeights.put(position, weights.get(e));
+            }
+        }
+
+        // keys added after freezing have identifiers the frozen graph does
+        // not have
+        return new BufferGraph<>(
+                offsets,
+                targets,
+                weights,
+                reverseOffsets,
+                reverseTargets,
+                reverseWeights,
+                key ->
+                {
+                    int id = ids.id(key);
+
+                    return id < count ? id : -1;
+                },
+                ids::key);
+    }
+
+    // returns an iterator over the nodes, in the order they were added
+    @Override
+    public Iterator<Key> iterator()
+    {
+        return new Iterator<>()
+        {
+            private int id;
+
+            @Override
+            public boolean hasNext() { return id < nodes; }
+
+            @Override
+            public Key next() { return ids.key(id++); }
+        };
+    }
+
+    // the identifier of the node, which is added if `add` is set and it is
+    // not in the graph yet
+    private int id(Key node, boolean add)
+    {
+        int id = ids.id(node);
+
+        if (id >= 0 || !add)
+        {
+            return id;
+        }
+
+        id = ids.add(node);
+
+        if ((id >>> NODE_BITS) == table.length)
+        {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+
+        if (table[id >>> NODE_BITS] == null)
+        {
+            table[id >>> NODE_BITS] = direct(NODE_PAGE * NODE_BYTES);
+        }
+
+        ByteBuffer page = table[id >>> NODE_BITS];
+        page.putLong(entry(id) + FIRST, NONE);
+        page.putLong(entry(id) + LAST, NONE);
+        page.putInt(entry(id) + DEGREE, 0);
+
+        nodes++;
+        version++;
+
+        return id;
+    }
+
+    // adds the edge from `tail` to `head` to the last block of `tail`, which
+    // is followed by a new block once it is full
+    private void append(
+            int tail,
+            int head,
+            int weight)
+    {
+        ByteBuffer page = table[tail >>> NODE_BITS];
+        int entry = entry(tail);
+        long last = page.getLong(entry + LAST);
+
+        if (last == NONE)
+        {
+            last = allocate(MIN_BLOCK);
+
+            page.putLong(entry + FIRST, last);
+            page.putLong(entry + LAST, last);
+        }
+        else
+        {
+            ByteBuffer arena = arena(last);
+            int offset = offset(last);
+            int capacity = arena.getInt(offset + CAPACITY);
+
+            if (arena.getInt(offset + COUNT) == capacity)
+            {
+                long block = allocate(Math.min(capacity * 2, MAX_BLOCK));
+
+                arena.putLong(offset + NEXT, block);
+                page.putLong(entry + LAST, block);
+                last = block;
+            }
+        }
+
+        ByteBuffer arena = arena(last);
+        int offset = offset(last);
+        int count = arena.getInt(offset + COUNT);
+        int edge = offset + BLOCK_HEADER + count * EDGE_BYTES;
+
+        arena.putInt(edge, head);
+        arena.putInt(edge + Integer.BYTES, weight);
+        arena.putInt(offset + COUNT, count + 1);
+
+        page.putInt(entry + DEGREE, page.getInt(entry + DEGREE) + 1);
+
+        edges++;
+        version++;
+    }
+
+    // hands out an empty block for `capacity` edges, from a new arena if the
+    // last one does not have room for it
+    private long allocate(int capacity)
+    {
+        int size = BLOCK_HEADER + capacity * EDGE_BYTES;
+
+        if (arenaUsed + size > ARENA_SIZE)
+        {
+            if (arenaCount == arenas.length)
+            {
+                arenas = Arrays.copyOf(arenas, arenas.length * 2);
+            }
+
+            arenas[arenaCount++] = direct(ARENA_SIZE);
+            arenaUsed = 0;
+        }
+
+        long block = ((long) (arenaCount - 1) << ARENA_BITS) | arenaUsed;
+        ByteBuffer arena = arenas[arenaCount - 1];
+
+        arena.putLong(arenaUsed + NEXT, NONE);
+        arena.putInt(arenaUsed + CAPACITY, capacity);
+        arena.putInt(arenaUsed + COUNT, 0);
+
+        arenaUsed += size;
+
+        return block;
+    }
+
+    // the first block of the node, NONE if it has no edges
+    private long first(int id)
+    {
+        return table[id >>> NODE_BITS].getLong(entry(id) + FIRST);
+    }
+
+    // the block after the given block, NONE if it is the last one
+    private long next(long block)
+    {
+        return arena(block).getLong(offset(block) + NEXT);
+    }
+
+    private ByteBuffer arena(long address)
+    {
+        return arenas[(int) (address >>> ARENA_BITS)];
+    }
+
+    private static int offset(long address)
+    {
+        return (int) address & (ARENA_SIZE - 1);
+    }
+
+    // the offset of the entry of the node in its page of the table
+    private static int entry(int id)
+    {
+        return (id & (NODE_PAGE - 1)) * NODE_BYTES;
+    }
+
+    private static ByteBuffer direct(int bytes)
+    {
+        return ByteBuffer
+                .allocateDirect(bytes)
+                .order(ByteOrder.nativeOrder());
+    }
+
+    private static IntBuffer ints(int count)
+    {
+        return direct(count * Integer.BYTES).asIntBuffer();
+    }
+}
@@ -0,0 +1,277 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        ParallelBFS.java implements a level-synchronous Breadth First Search
+        that spreads every level over the threads of a ForkJoinPool. The
+        frontier is split into chunks that are searched at the same time, and
+        nodes are claimed through an atomic bitmap so that each node is
+        discovered by exactly one thread.
+    Usage:
+        Import to use on any graph in the IndexedGraph structure:
+            ParallelBFS.search(graph, from, to)
+            ParallelBFS.hopDistances(graph, from)
+        Both use the common pool unless given a pool of their own.
+
+        Requires `IndexedGraph.java` to function.
+ */
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class ParallelBFS
+{
+    // frontiers smaller than this are searched by a single task
+    private static final int GRAIN = 1024;
+
+    // searches for the given node `to` from given node `from` in the given
+    // graph, using the common pool
+    public static <Key> LinkedList<Key> search(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to)
+    {
+        return search(graph, from, to, ForkJoinPool.commonPool());
+    }
+
+    // searches for the given node `to` from given node `from` in the given
+    // graph, using the threads of `pool`
+    public static <Key> LinkedList<Key> search(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to,
+            ForkJoinPool pool)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        // if the graph does not contain either nodes, there can be no path so
+        // nothing
+        if (start < 0 || end < 0)
+        {
+            return null;
+        }
+
+        Levels levels = new Levels(graph, start, end, pool);
+        levels.run();
+
+        if (levels.parent[end] < 0)
+        {
+            return null;
+        }
+
+        LinkedList<Key> path =
+                new LinkedList<>();
+
+        for (int current = end; current != start;
+             current = levels.parent[current])
+        {
+            path.addFirst(graph.key(current));
+        }
+
+        path.addFirst(from);
+
+        return path;
+    }
+
+    // the amount of edges on the shortest path from `from` to every node,
+    // indexed by the dense identifiers of the graph. unreachable nodes have
+    // -1. uses the common pool
+    public static <Key> int[] hopDistances(
+            IndexedGraph<Key> graph,
+            Key from)
+    {
+        return hopDistances(graph, from, ForkJoinPool.commonPool());
+    }
+
+    // the amount of edges on the shortest path from `from` to every node,
+    // using the threads of `pool`
+    public static <Key> int[] hopDistances(
+            IndexedGraph<Key> graph,
+            Key from,
+            ForkJoinPool pool)
+    {
+        int start = graph.id(from);
+
+        if (start < 0)
+        {
+            return null;
+        }
+
+        Levels levels = new Levels(graph, start, -1, pool);
+        levels.run();
+
+        return levels.distance;
+    }
+
+    // the state of one search, shared by all tasks
+    private static class Levels
+    {
+        private final IndexedGraph<?> graph;
+        private final int start;
+        private final int end;
+        private final ForkJoinPool pool;
+
+        // one bit per node, set by the task that discovers the node
+        private final AtomicLongArray visited;
+
+        // written only by the task that claimed the node, and read after the
+        // level is joined, which orders the write before the read
+        private final int[] parent;
+        private final int[] distance;
+
+        // the current level and the level being discovered
+        private int[] frontier;
+        private int frontierSize;
+        private int[] next;
+        private final AtomicInteger nextSize;
+
+        Levels(
+                IndexedGraph<?> graph,
+                int start,
+                int end,
+                ForkJoinPool pool)
+        {
+            this.graph = graph;
+            this.start = start;
+            this.end = end;
+            this.pool = pool;
+
+            int nodes = graph.nodes();
+
+            visited = new AtomicLongArray((nodes + 63) >>> 6);
+
+            parent = new int[nodes];
+            distance = new int[nodes];
+            Arrays.fill(parent, -1);
+            Arrays.fill(distance, -1);
+
+            frontier = new int[nodes];
+            next = new int[nodes];
+            nextSize = new AtomicInteger();
+        }
+
+        void run()
+        {
+            claim(start);
+            parent[start] = start;
+            distance[start] = 0;
+
+            frontier[0] = start;
+            frontierSize = 1;
+
+            for (int level = 1; frontierSize > 0; level++)
+            {
+                // the end node was discovered in the previous level
+                if (end >= 0 && parent[end] >= 0)
+                {
+                    break;
+                }
+
+                nextSize.set(0);
+                pool.invoke(new Expand(0, frontierSize, level));
+
+                int[] swap = frontier;
+                frontier = next;
+                next = swap;
+                frontierSize = nextSize.get();
+            }
+        }
+
+        // sets the bit of the node, returns false if it already was set
+        private boolean claim(int node)
+        {
+            int word = node >>> 6;
+            long bit = 1L << node;
+
+            while (true)
+            {
+                long bits = visited.get(word);
+
+                if ((bits & bit) != 0)
+                {
+                    return false;
+                }
+
+                if (visited.compareAndSet(word, bits, bits | bit))
+                {
+                    return true;
+                }
+            }
+        }
+
+        // searches the range `from` to `to` of the frontier, splitting it in
+        // halves until it is small enough for one task
+        private class Expand extends RecursiveAction
+        {
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+            private final int level;
+
+            Expand(int from, int to, int level)
+            {
+                this.from = from;
+                this.to = to;
+                this.level = level;
+            }
+
+            @Override
+            protected void compute()
+            {
+                if (to - from > GRAIN)
+                {
+                    int middle = (from + to) >>> 1;
+
+                    invokeAll(
+                            new Expand(from, middle, level),
+                            new Expand(middle, to, level));
+
+                    return;
+                }
+
+                // the nodes discovered by this task, added to the next level
+                // in one block so the tasks do not contend on every node
+                int[] found = new int[64];
+                int count = 0;
+
+                for (int i = from; i < to; i++)
+                {
+                    int node = frontier[i];
+
+                    for (int e = graph.begin(node); e < graph.end(node); e++)
+                    {
+                        int adjacent = graph.target(e);
+
+                        // cheap check before the atomic claim
+                        if ((visited.get(adjacent >>> 6)
+                                & 1L << adjacent) != 0
+                                || !claim(adjacent))
+                        {
+                            continue;
+                        }
+
+                        parent[adjacent] = node;
+                        distance[adjacent] = level;
+
+                        if (count == found.length)
+                        {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+
+                        found[count++] = adjacent;
+                    }
+                }
+
+                int position = nextSize.getAndAdd(count);
+                System.arraycopy(found, 0, next, position, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,472 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        ParallelGraphLoader.java loads the numeric weighted format on all the
+        threads of a ForkJoinPool, and gives exactly the graph the sequential
+        `GraphLoader.java` gives for the same file.
+
+        The file is split into chunks that start and end at line breaks. The
+        lines of every chunk are counted at the same time, and a prefix sum of
+        the counts tells each chunk which of its lines are edges and which
+        are the mirrored copies to skip. The chunks are then parsed at the
+        same time into edge buffers of their own, each with a dictionary of
+        the numbers it has seen. The dictionaries are merged in chunk order,
+        which gives every node the identifier it would have had if the file
+        was read from start to end, and the graph is built from the buffers
+        in chunk order with a counting sort.
+
+        Files that do not follow the format strictly, with blank lines where
+        edges are expected or edges split over lines, are read by the
+        sequential loader instead, as is a load limited to `maxNodes` nodes,
+        since where to stop depends on everything read before.
+    Usage:
+        Import the class and use the static functions to load a file:
+            ParallelGraphLoader.numericWeightedNodesCompressed(path, -1);
+        Both functions use the common pool unless given a pool of their own.
+
+        Requires `GraphLoader.java`, `WeightedAdjacencyList.java`, and
+        `CompressedGraph.java` to function.
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelGraphLoader
+{
+    // the size of a chunk, before it is moved to the next line break
+    private static final int CHUNK = 1 << 24;
+
+    // same as `GraphLoader.numericWeightedNodes`, using the common pool
+    public static WeightedAdjacencyList<Integer> numericWeightedNodes(
+            Path file,
+            int maxNodes) throws IOException
+    {
+        return numericWeightedNodes(file, maxNodes, ForkJoinPool.commonPool());
+    }
+
+    // same as `GraphLoader.numericWeightedNodes`, using the threads of `pool`
+    public static WeightedAdjacencyList<Integer> numericWeightedNodes(
+            Path file,
+            int maxNodes,
+            ForkJoinPool pool) throws IOException
+    {
+        Edges edges = maxNodes < 0 ? read(file, pool) : null;
+
+        if (edges == null)
+        {
+            return GraphLoader.numericWeightedNodes(file, maxNodes);
+        }
+
+        WeightedAdjacencyList<Integer> graph =
+                new WeightedAdjacencyList<>(
+                        edges.keys.length,
+                        Math.toIntExact(edges.count * 2));
+
+        edges.into(new GraphLoader.AdjacencyListSink<>(graph, true));
+
+        return graph;
+    }
+
+    // same as `GraphLoader.numericWeightedNodesCompressed`, using the common
+    // pool
+    public static CompressedGraph<Integer> numericWeightedNodesCompressed(
+            Path file,
+            int maxNodes) throws IOException
+    {
+        return numericWeightedNodesCompressed(
+                file,
+                maxNodes,
+                ForkJoinPool.commonPool());
+    }
+
+    // same as `GraphLoader.numericWeightedNodesCompressed`, using the threads
+    // of `pool`
+    public static CompressedGraph<Integer> numericWeightedNodesCompressed(
+            Path file,
+            int maxNodes,
+            ForkJoinPool pool) throws IOException
+    {
+        Edges edges = maxNodes < 0 ? read(file, pool) : null;
+
+        if (edges == null)
+        {
+            return GraphLoader.numericWeightedNodesCompressed(file, maxNodes);
+        }
+
+        CompressedGraph.Builder<Integer> builder =
+                new CompressedGraph.Builder<>(
+                        edges.keys.length,
+                        Math.toIntExact(edges.count * 2));
+
+        edges.into(new GraphLoader.BuilderSink<>(builder, true));
+
+        return builder.build();
+    }
+
+    // reads the edges of the file in parallel, or returns null if the file
+    // must be read by the sequential loader to give the same graph
+    private static Edges read(Path file, ForkJoinPool pool) throws IOException
+    {
+        try (FileChannel channel =
+                     FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            long start;
+
+            // the header is the amount of nodes and of edge lines
+            try (GraphLoader.Tokens header =
+                         new GraphLoader.Tokens(channel, 0, size))
+            {
+                header.lineValue();
+                header.lineValue();
+                start = header.offset();
+            }
+
+            Chunk[] chunks = split(channel, start, size);
+
+            try
+            {
+                // count the lines of every chunk, and find the first line of
+                // each from the counts of the chunks before it
+                each(pool, chunks, Chunk::count);
+
+                long line = 0;
+
+                for (Chunk chunk : chunks)
+                {
+                    chunk.line = line;
+                    line += chunk.lines;
+                }
+
+                each(pool, chunks, Chunk::parse);
+
+                for (Chunk chunk : chunks)
+                {
+                    if (chunk.irregular)
+                    {
+                        return null;
+                    }
+                }
+
+                Edges edges = new Edges(chunks);
+
+                each(pool, chunks, Chunk::translate);
+
+                return edges;
+            }
+            catch (UncheckedIOException e)
+            {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // splits the bytes from `start` to `size` into chunks that each begin at
+    // the start of a line
+    private static Chunk[] split(
+            FileChannel channel,
+            long start,
+            long size) throws IOException
+    {
+        int count = (int) Math.max(1, (size - start + CHUNK - 1) / CHUNK);
+        long[] bounds = new long[count + 1];
+
+        bounds[0] = start;
+        bounds[count] = size;
+
+        for (int i = 1; i < count; i++)
+        {
+            long from = Math.max(bounds[i - 1], start + (long) i * CHUNK - 1);
+
+            try (GraphLoader.Tokens tokens =
+                         new GraphLoader.Tokens(channel, from, size))
+            {
+                // the byte before the nominal bound may itself end a line
+                tokens.skipLine();
+                bounds[i] = tokens.offset();
+            }
+        }
+
+        Chunk[] chunks = new Chunk[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            chunks[i] = new Chunk(channel, bounds[i], bounds[i + 1]);
+        }
+
+        return chunks;
+    }
+
+    // runs the step for every chunk on the threads of the pool
+    private static void each(ForkJoinPool pool, Chunk[] chunks, Step step)
+    {
+        pool.invoke(new Each(chunks, 0, chunks.length, step));
+    }
+
+    private interface Step
+    {
+        void run(Chunk chunk) throws IOException;
+    }
+
+    // runs a step for the chunks in the range `from` to `to`, splitting the
+    // range in halves until it holds a single chunk
+    private static class Each extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+        private final Step step;
+
+        Each(Chunk[] chunks, int from, int to, Step step)
+        {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.step = step;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int middle = (from + to) >>> 1;
+
+                invokeAll(
+                        new Each(chunks, from, middle, step),
+                        new Each(chunks, middle, to, step));
+
+                return;
+            }
+
+            try
+            {
+                step.run(chunks[from]);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // the lines from `from` to `to` of the file and the edges found on them
+    private static class Chunk
+    {
+        // returned by `next` when the line has no number left
+        private static final long NONE = Long.MIN_VALUE;
+
+        private final FileChannel channel;
+        private final long from;
+        private final long to;
+
+        // the amount of lines, and the index of the first one among all the
+        // lines after the header
+        private long lines;
+        private long line;
+
+        // the edges in the order they appear, between the identifiers of
+        // the local dictionary until they are translated
+        private int[] tails;
+        private int[] heads;
+        private int[] weights;
+        private int edges;
+
+        // the numbers in the order they first appear in the chunk, and the
+        // identifier each was given by the merged dictionary
+        private GraphLoader.IntIds ids;
+        private int[] global;
+
+        // set if the chunk does not follow the format strictly
+        private boolean irregular;
+
+        Chunk(FileChannel channel, long from, long to)
+        {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+        }
+
+        void count() throws IOException
+        {
+            try (GraphLoader.Tokens tokens =
+                         new GraphLoader.Tokens(channel, from, to))
+            {
+                lines = tokens.countLines();
+            }
+        }
+
+        // reads every other line, the ones the sequential loader reads, as
+        // three numbers
+        void parse() throws IOException
+        {
+            // a line holds about 12 bytes, and half the lines are edges
+            int capacity = (int) Math.max(16, (to - from) / 24);
+
+            tails = new int[capacity];
+            heads = new int[capacity];
+            weights = new int[capacity];
+            ids = new GraphLoader.IntIds();
+
+            try (GraphLoader.Tokens tokens =
+                         new GraphLoader.Tokens(channel, from, to))
+            {
+                // the mirrored lines are the odd ones after the header
+                for (long i = line; tokens.hasBytes(); i++)
+                {
+                    if ((i & 1) == 0 && !parseLine(tokens))
+                    {
+                        irregular = true;
+
+                        return;
+                    }
+
+                    tokens.skipLine();
+                }
+            }
+        }
+
+        // reads the three numbers at the start of the line, false if the
+        // line does not start with three numbers
+        private boolean parseLine(GraphLoader.Tokens tokens) throws IOException
+        {
+            long tail = next(tokens);
+            long head = tail == NONE ? NONE : next(tokens);
+            long weight = head == NONE ? NONE : next(tokens);
+
+            if (weight == NONE)
+            {
+                return false;
+            }
+
+            if (edges == tails.length)
+            {
+                tails = Arrays.copyOf(tails, edges * 2);
+                heads = Arrays.copyOf(heads, edges * 2);
+                weights = Arrays.copyOf(weights, edges * 2);
+            }
+
+            tails[edges] = id((int) tail);
+            heads[edges] = id((int) head);
+            weights[edges] = (int) weight;
+            edges++;
+
+            return true;
+        }
+
+        // the next number on the line, or `NONE` if there is none
+        private static long next(GraphLoader.Tokens tokens) throws IOException
+        {
+            if (!tokens.hasNextOnLine())
+            {
+                return NONE;
+            }
+
+            try
+            {
+                return tokens.nextInt();
+            }
+            catch (InputMismatchException e)
+            {
+                return NONE;
+            }
+        }
+
+        private int id(int number)
+        {
+            int id = ids.id(number);
+
+            return id < 0 ? ids.add(number) : id;
+        }
+
+        // turns the identifiers of the local dictionary into the merged ones
+        void translate()
+        {
+            for (int i = 0; i < edges; i++)
+            {
+                tails[i] = global[tails[i]];
+                heads[i] = global[heads[i]];
+            }
+        }
+    }
+
+    // the nodes and edges of all the chunks
+    private static class Edges
+    {
+        private final Chunk[] chunks;
+        private final int[] keys;
+        private final long count;
+
+        // merges the dictionaries of the chunks in order, so every number
+        // gets the identifier of its first appearance in the file
+        Edges(Chunk[] chunks)
+        {
+            this.chunks = chunks;
+
+            GraphLoader.IntIds ids = new GraphLoader.IntIds();
+            long count = 0;
+
+            for (Chunk chunk : chunks)
+            {
+                chunk.global = new int[chunk.ids.size()];
+
+                for (int local = 0; local < chunk.global.length; local++)
+                {
+                    int number = chunk.ids.number(local);
+                    int id = ids.id(number);
+
+                    chunk.global[local] = id < 0 ? ids.add(number) : id;
+                }
+
+                // the local dictionary is not needed anymore
+                chunk.ids = null;
+                count += chunk.edges;
+            }
+
+            keys = new int[ids.size()];
+
+            for (int id = 0; id < keys.length; id++)
+            {
+                keys[id] = ids.number(id);
+            }
+
+            this.count = count;
+        }
+
+        // gives the nodes and then the edges to the sink, in file order
+        void into(GraphLoader.Sink<Integer> sink)
+        {
+            for (int key : keys)
+            {
+                sink.addNode(key);
+            }
+
+            for (Chunk chunk : chunks)
+            {
+                for (int i = 0; i < chunk.edges; i++)
+                {
+                    sink.addEdge(
+                            chunk.tails[i],
+                            chunk.heads[i],
+                            chunk.weights[i]);
+                }
+
+                // let the buffers go as soon as they have been used
+                chunk.tails = null;
+                chunk.heads = null;
+                chunk.weights = null;
+            }
+        }
+    }
+}
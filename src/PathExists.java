@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/10/05
-    Updated: 2020/10/06
+    Updated: 2026/10/17
     Purpose:
         PathExists consists of one function, pathExists, which produces a bool
         that represents if a path exists or not.
@@ -15,12 +15,23 @@
             {head 2} {tail 2}
             etc
 
-        Requires `WeightedAdjacencyList.java`, `BFS.java`, and
-        `TestDataParsing.java` to function.
+        For undirected graphs the answer comes from a ConnectedComponents index
+        that is built on the first query and kept until the graph changes, so
+        a query is a comparison of two labels instead of a search. Directed
+        graphs are answered the same way by a ReachabilityIndex, which only
+        searches when its labels can not decide.
+
+        IntWeightedGraphs keep no index, they are answered by a breadth first
+        search whose state is kept in a SearchContext, so a query allocates
+        nothing.
+
+        Requires `WeightedAdjacencyList.java`, `ConnectedComponents.java`,
+        `ReachabilityIndex.java`, `IntWeightedGraph.java`,
+        `SearchContext.java`, and `GraphLoader.java` to function.
  */
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class PathExists
@@ -30,16 +41,95 @@ public class PathExists
             Key from,
             Key to)
     {
-        return BFS.search(graph, from, to) != null;
+        // in an undirected graph a path exists exactly when both nodes are in
+        // the same connected component
+        if (!graph.isDirected())
+        {
+            return components(graph).connected(from, to);
+        }
+
+        // in a directed graph the reachability index rules out most pairs
+        // from its labels and only searches when they can not decide
+        return reachability(graph).reaches(from, to);
+    }
+
+    // checks if there is a path from `from` to `to` in the given int graph,
+    // keeping the queue and marks of the search in `context`
+    public static boolean pathExists(
+            IntWeightedGraph graph,
+            int from,
+            int to,
+            SearchContext context)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        if (start < 0 || end < 0)
+        {
+            return false;
+        }
+
+        context.reset(graph.nodes());
+
+        // the marked nodes, the ones from `head` on are not searched yet
+        int[] queue = context.queue();
+        int head = 0;
+        int tail = 0;
+
+        context.visit(start);
+        queue[tail++] = start;
+
+        while (head < tail)
+        {
+            int node = queue[head++];
+
+            if (node == end)
+            {
+                return true;
+            }
+
+            int[] targets = graph.targets(node);
+
+            for (int i = 0; i < graph.degree(node); i++)
+            {
+                if (!context.isVisited(targets[i]))
+                {
+                    context.visit(targets[i]);
+                    queue[tail++] = targets[i];
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // the component index of the graph, created on its first query and
+    // attached to the graph. the index builds itself again whenever the graph
+    // has changed
+    public static <Key> ConnectedComponents<Key> components(
+            WeightedAdjacencyList<Key> graph)
+    {
+        return graph.attached(
+                ConnectedComponents.class,
+                ConnectedComponents::new);
     }
 
-    public static void main(String[] args) throws FileNotFoundException
+    // the reachability index of the graph, created on its first query and
+    // attached to the graph. like the component index it builds itself again
+    // whenever the graph has changed
+    public static <Key> ReachabilityIndex<Key> reachability(
+            WeightedAdjacencyList<Key> graph)
     {
-        Scanner file = new Scanner(new File(args[0]));
+        return graph.attached(
+                ReachabilityIndex.class,
+                ReachabilityIndex::new);
+    }
 
+    public static void main(String[] args) throws IOException
+    {
         // create graph from file
         WeightedAdjacencyList<String> graph =
-                TestDataParsing.namedNodesUnidirectional(file);
+                GraphLoader.namedNodesUnidirectional(Path.of(args[0]));
 
         // take input
         Scanner in = new Scanner(System.in);
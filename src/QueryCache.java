@@ -0,0 +1,316 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        QueryCache.java remembers the paths found between pairs of nodes of a
+        WeightedAdjacencyList, so that a query that has been asked before
+        costs a hash lookup instead of a search.
+
+        The cache is split into SEGMENTS segments by the hash of the query,
+        each a LinkedHashMap in access order behind a lock of its own, so
+        threads asking different queries seldom wait for each other. Every
+        segment holds its share of the bytes the cache may use, and evicts
+        its least recently used paths once they are more than that. The size
+        of a path is estimated from the amount of nodes in it.
+
+        Every path is stamped with the version of the graph it was found in,
+        and is only kept if the graph still has that version once the search
+        is done. A segment that sees that the graph has changed since it was
+        last used drops everything in it, so a path is never served after
+        nodes or edges have been added to the graph. The graph may be changed
+        by one thread at a time while the cache is used, its version is
+        volatile so that the other threads see every change to it.
+
+        Two threads missing on the same query at the same time both search,
+        and the last path found is kept.
+    Usage:
+        Create a cache for a graph with a budget of bytes, and ask it instead
+        of the search:
+            QueryCache<Integer> cache = new QueryCache<>(graph, 64 << 20);
+            List<Integer> path =
+                    cache.search(QueryCache.Algorithm.SHORTEST_PATH, from, to);
+
+        The paths are shared between callers and can not be modified.
+
+        Requires `WeightedAdjacencyList.java`, `ShortestPath.java`, and
+        `BFS.java` to function.
+ */
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+public class QueryCache<Key>
+{
+    // amount of segments, a power of two
+    private static final int SEGMENTS = 16;
+
+    // estimated bytes of a cached query without its path, and of every node
+    // in its path
+    private static final long ENTRY_BYTES = 128;
+    private static final long NODE_BYTES = 32;
+
+    // the searches whose paths can be cached
+    public enum Algorithm
+    {
+        SHORTEST_PATH,
+        BFS
+    }
+
+    private final WeightedAdjacencyList<Key> graph;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // caches paths of the graph in at most about `maxBytes` bytes
+    public QueryCache(WeightedAdjacencyList<Key> graph, long maxBytes)
+    {
+        this.graph = graph;
+        this.segments = new Segment[SEGMENTS];
+
+        for (int i = 0; i < SEGMENTS; i++)
+        {
+            segments[i] = new Segment(maxBytes / SEGMENTS, evictions);
+        }
+    }
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long evictions() { return evictions.sum(); }
+
+    // the path from `from` to `to` found by the given search, null if there
+    // is none, searched for only if it is not cached for the current version
+    // of the graph
+    @SuppressWarnings("unchecked")
+    public List<Key> search(Algorithm algorithm, Key from, Key to)
+    {
+        Query query = new Query(algorithm, from, to);
+        Segment segment = segment(query);
+
+        int version = graph.version();
+        Entry cached = segment.get(query, version);
+
+        if (cached != null)
+        {
+            hits.increment();
+
+            return (List<Key>) cached.path;
+        }
+
+        misses.increment();
+
+        LinkedList<Key> found = algorithm == Algorithm.BFS
+                ? BFS.search(graph, from, to)
+                : ShortestPath.search(graph, from, to);
+
+        List<Key> path = found == null
+                ? null
+                : Collections.unmodifiableList(found);
+
+        // stamped with the version from before the search, and only kept if
+        // the graph is still at that version after it
+        segment.put(query, new Entry(path, version), graph.version());
+
+        return path;
+    }
+
+    // amount of cached paths
+    public int size()
+    {
+        int size = 0;
+
+        for (Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                size += segment.entries.size();
+            }
+        }
+
+        return size;
+    }
+
+    // estimated bytes of the cached paths
+    public long bytes()
+    {
+        long bytes = 0;
+
+        for (Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                bytes += segment.bytes;
+            }
+        }
+
+        return bytes;
+    }
+
+    // drops every cached path
+    public void clear()
+    {
+        for (Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+                "%d paths, %d bytes, %d hits, %d misses, %d evictions",
+                size(),
+                bytes(),
+                hits(),
+                misses(),
+                evictions());
+    }
+
+    private Segment segment(Query query)
+    {
+        int hash = query.hashCode();
+
+        return segments[(hash ^ hash >>> 16) & (SEGMENTS - 1)];
+    }
+
+    // the endpoints and search of a query
+    private static final class Query
+    {
+        private final Algorithm algorithm;
+        private final Object from;
+        private final Object to;
+        private final int hash;
+
+        Query(Algorithm algorithm, Object from, Object to)
+        {
+            this.algorithm = algorithm;
+            this.from = from;
+            this.to = to;
+            this.hash = Objects.hash(algorithm, from, to);
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof Query))
+            {
+                return false;
+            }
+
+            Query query = (Query) other;
+
+            return algorithm == query.algorithm
+                    && Objects.equals(from, query.from)
+                    && Objects.equals(to, query.to);
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+
+    // a cached path, null if there is no path, and the version of the graph
+    // it was found in
+    private static final class Entry
+    {
+        private final List<?> path;
+        private final int version;
+        private final long bytes;
+
+        Entry(List<?> path, int version)
+        {
+            this.path = path;
+            this.version = version;
+            this.bytes = ENTRY_BYTES
+                    + (path == null ? 0 : path.size() * NODE_BYTES);
+        }
+    }
+
+    // a share of the cache, used while holding its lock
+    private static final class Segment
+    {
+        private final long maxBytes;
+        private final LongAdder evictions;
+
+        // the least recently used entry first
+        private final LinkedHashMap<Query, Entry> entries =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        private long bytes;
+
+        // the version of the graph the entries were found in, older entries
+        // are all dropped at once
+        private int version;
+
+        Segment(long maxBytes, LongAdder evictions)
+        {
+            this.maxBytes = maxBytes;
+            this.evictions = evictions;
+        }
+
+        // the entry of the query, `version` being the current version of the
+        // graph
+        synchronized Entry get(Query query, int version)
+        {
+            current(version);
+
+            return entries.get(query);
+        }
+
+        // keeps the entry, `version` being the current version of the graph
+        synchronized void put(Query query, Entry entry, int version)
+        {
+            current(version);
+
+            // the graph changed during the search, the path may be stale
+            if (entry.version != this.version)
+            {
+                return;
+            }
+
+            Entry replaced = entries.put(query, entry);
+            bytes += entry.bytes - (replaced == null ? 0 : replaced.bytes);
+
+            // evict the least recently used entries until the segment fits,
+            // possibly the new entry itself if it is larger than the segment
+            Iterator<Map.Entry<Query, Entry>> eldest =
+                    entries.entrySet().iterator();
+
+            while (bytes > maxBytes && eldest.hasNext())
+            {
+                bytes -= eldest.next().getValue().bytes;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        void clear()
+        {
+            entries.clear();
+            bytes = 0;
+        }
+
+        // drops the entries if the graph has changed since they were found.
+        // a thread that read the version before the graph changed may pass
+        // an older one, which leaves the newer entries alone
+        private void current(int version)
+        {
+            if (version - this.version > 0)
+            {
+                clear();
+                this.version = version;
+            }
+        }
+    }
+}
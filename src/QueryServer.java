@@ -0,0 +1,466 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        QueryServer.java loads a graph once and answers path, reachability,
+        and route queries about it over HTTP, with the server built into the
+        JDK, so that the graph does not have to be loaded for every query and
+        any amount of clients can ask at the same time.
+
+        Every request is handled on a thread of its own. From Java 21 those
+        are virtual threads, which cost next to nothing, so thousands of
+        queries can wait on their clients at once. Before that a pool of
+        THREADS_PER_CORE threads per core is used instead, which is always
+        the case on Java 17, the version this project is built with, as the
+        virtual threads are looked up by reflection.
+
+        The searches themselves do not run on the request threads but on a
+        pool with one thread per core, which the request threads wait for.
+        Those threads live as long as the server, so the SearchContexts they
+        keep in their thread local pools are used again by every search,
+        and at most one search per core holds state the size of the graph,
+        however many requests are waiting. The graph is only read once it is
+        loaded, so the threads share it without locks. Paths are answered
+        through a QueryCache, so repeated queries do not search.
+
+        Connections are kept alive between requests, so a client can send
+        its requests one after another without waiting for the answers, and
+        gets the answers back in the same order. A batch sends any amount of
+        queries in the body of one request, one per line, which are answered
+        in parallel and returned one per line in the same order.
+    Usage:
+        The first argument is the format of the file, `numeric`,
+        `bidirectional`, or `unidirectional`, the second the file, and the
+        optional third and fourth the port, PORT by default, and the
+        megabytes of the cache, CACHE_MEGABYTES by default:
+            java QueryServer bidirectional contiguous-usa.dat 8080
+
+        The server only listens on the loopback address. Queries are asked
+        with GET requests, and answered in plain text:
+            /path?from={node}&to={node}      the shortest path, or `none`
+            /bfs?from={node}&to={node}       the path with the fewest edges
+            /exists?from={node}&to={node}    `true` or `false`
+            /route?via={node},{node},...     the cost and path of the route
+                                             through the nodes in order
+            /optimal?via={node},{node},...   the same in the cheapest order
+            /stats                           hits and misses of the cache
+
+        A POST to /batch holds one query per line, with the name of the query
+        followed by its nodes, all separated by spaces:
+            path 1 2
+            route 1 5 7
+        A query that can not be answered gets a line starting with `error`.
+
+        Requires `WeightedAdjacencyList.java`, `CompressedGraph.java`,
+        `QueryCache.java`, `ShortestPath.java`, `BFS.java`,
+        `PathExists.java`, `Route.java`, and `GraphLoader.java` to function.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class QueryServer<Key>
+{
+    public static final int PORT = 8080;
+    public static final int CACHE_MEGABYTES = 256;
+
+    // the threads per core when there are no virtual threads
+    private static final int THREADS_PER_CORE = 8;
+
+    // connections waiting to be accepted before new ones are refused
+    private static final int BACKLOG = 4096;
+
+    private final WeightedAdjacencyList<Key> graph;
+    private final CompressedGraph<Key> frozen;
+    private final QueryCache<Key> cache;
+
+    // turns the text of a node in a query into its key
+    private final Function<String, Key> parser;
+
+    // the threads every search runs on, one per core
+    private final ForkJoinPool searches;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // serves queries about the graph, which must not change afterwards
+    public QueryServer(
+            WeightedAdjacencyList<Key> graph,
+            Function<String, Key> parser,
+            long cacheBytes)
+    {
+        this.graph = graph;
+        this.frozen = CompressedGraph.from(graph);
+        this.cache = new QueryCache<>(graph, cacheBytes);
+        this.parser = parser;
+        this.searches = new ForkJoinPool(
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    // starts listening on the port of the loopback address, 0 picks any free
+    // port
+    public synchronized void start(int port) throws IOException
+    {
+        server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                BACKLOG);
+        executor = executor();
+
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    // stops listening, and waits at most `seconds` for the requests being
+    // handled
+    public synchronized void stop(int seconds)
+    {
+        server.stop(seconds);
+        executor.shutdown();
+        searches.shutdown();
+    }
+
+    // the port the server listens on
+    public int port()
+    {
+        return server.getAddress().getPort();
+    }
+
+    // answers a single query, as a line of a batch: the name of the query
+    // and its nodes, separated by spaces. routes are searched on the threads
+    // of the server, the rest on the calling thread
+    public String answer(String query)
+    {
+        String[] words = query.trim().split("\\s+");
+
+        List<Key> nodes =
+                new ArrayList<>();
+
+        for (int i = 1; i < words.length; i++)
+        {
+            nodes.add(parser.apply(words[i]));
+        }
+
+        switch (words[0])
+        {
+            case "path":
+                return path(QueryCache.Algorithm.SHORTEST_PATH, nodes);
+            case "bfs":
+                return path(QueryCache.Algorithm.BFS, nodes);
+            case "exists":
+                return exists(nodes);
+            case "route":
+                return route(ShortestPath.route(frozen, nodes, searches));
+            case "optimal":
+                return route(
+                        ShortestPath.optimalRoute(frozen, nodes, searches));
+            default:
+                throw new IllegalArgumentException(
+                        "unknown query " + words[0]);
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        Path file = Path.of(args[1]);
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : PORT;
+        long cacheBytes = (args.length > 3
+                ? Long.parseLong(args[3])
+                : CACHE_MEGABYTES) << 20;
+
+        QueryServer<?> server;
+
+        if (args[0].equals("numeric"))
+        {
+            server = new QueryServer<>(
+                    GraphLoader.numericWeightedNodes(file, -1),
+                    Integer::valueOf,
+                    cacheBytes);
+        }
+        else if (args[0].equals("bidirectional"))
+        {
+            server = new QueryServer<>(
+                    GraphLoader.namedNodesBidirectional(file),
+                    Function.identity(),
+                    cacheBytes);
+        }
+        else if (args[0].equals("unidirectional"))
+        {
+            server = new QueryServer<>(
+                    GraphLoader.namedNodesUnidirectional(file),
+                    Function.identity(),
+                    cacheBytes);
+        }
+        else
+        {
+            throw new IllegalArgumentException("unknown format " + args[0]);
+        }
+
+        server.start(port);
+
+        System.out.printf(
+                "%d nodes, %d edges, listening on port %d\n",
+                server.graph.nodes(),
+                server.graph.edges(),
+                server.port());
+    }
+
+    // answers a request, the path of the URI names the query
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            String name = exchange.getRequestURI().getPath().substring(1);
+
+            if (name.equals("batch"))
+            {
+                List<String> queries = lines(exchange);
+
+                respond(exchange, 200, search(() -> batch(queries)));
+            }
+            else if (name.equals("stats"))
+            {
+                respond(exchange, 200, cache.toString());
+            }
+            else if (name.matches("path|bfs|exists|route|optimal"))
+            {
+                String query = query(name, exchange);
+
+                respond(exchange, 200, search(() -> answer(query)));
+            }
+            else
+            {
+                respond(exchange, 404, "unknown query " + name);
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            respond(exchange, 400, e.getMessage());
+        }
+        catch (RuntimeException e)
+        {
+            respond(exchange, 500, e.toString());
+        }
+    }
+
+    // the query of a GET request in the form of a line of a batch
+    private static String query(String name, HttpExchange exchange)
+    {
+        Map<String, String> parameters = parameters(exchange);
+
+        if (parameters.containsKey("via"))
+        {
+            return name + " " + parameters.get("via").replace(',', ' ');
+        }
+
+        if (!parameters.containsKey("from") || !parameters.containsKey("to"))
+        {
+            throw new IllegalArgumentException(
+                    name + " needs `from` and `to`, or `via`");
+        }
+
+        return name + " " + parameters.get("from") + " "
+                + parameters.get("to");
+    }
+
+    // the parameters of the query string of the request
+    private static Map<String, String> parameters(HttpExchange exchange)
+    {
+        Map<String, String> parameters =
+                new HashMap<>();
+
+        String query = exchange.getRequestURI().getRawQuery();
+
+        if (query == null)
+        {
+            return parameters;
+        }
+
+        for (String parameter : query.split("&"))
+        {
+            int equals = parameter.indexOf('=');
+
+            if (equals > 0)
+            {
+                parameters.put(
+                        decode(parameter.substring(0, equals)),
+                        decode(parameter.substring(equals + 1)));
+            }
+        }
+
+        return parameters;
+    }
+
+    private static String decode(String text)
+    {
+        return URLDecoder.decode(text, StandardCharsets.UTF_8);
+    }
+
+    // runs the query on a thread of `searches` and waits for its answer
+    private String search(Callable<String> query)
+    {
+        try
+        {
+            return searches.submit(query).get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("interrupted", e);
+        }
+        catch (ExecutionException e)
+        {
+            // a bad query fails with the exception of the query itself
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // the lines of the body of the request that are not blank
+    private static List<String> lines(HttpExchange exchange)
+            throws IOException
+    {
+        try (BufferedReader body = new BufferedReader(
+                new InputStreamReader(
+                        exchange.getRequestBody(),
+                        StandardCharsets.UTF_8)))
+        {
+            return body
+                    .lines()
+                    .filter(line -> !line.isBlank())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // answers every query in parallel, on the pool it is called from, an
+    // error only fails its own line
+    private String batch(List<String> queries)
+    {
+        String[] answers = new String[queries.size()];
+
+        IntStream.range(0, answers.length).parallel().forEach(i ->
+        {
+            try
+            {
+                answers[i] = answer(queries.get(i));
+            }
+            catch (RuntimeException e)
+            {
+                answers[i] = "error " + e.getMessage();
+            }
+        });
+
+        return String.join("\n", answers);
+    }
+
+    private String path(QueryCache.Algorithm algorithm, List<Key> nodes)
+    {
+        pair(nodes);
+
+        List<Key> path = cache.search(algorithm, nodes.get(0), nodes.get(1));
+
+        return path == null ? "none" : join(path);
+    }
+
+    private String exists(List<Key> nodes)
+    {
+        pair(nodes);
+
+        return String.valueOf(
+                PathExists.pathExists(graph, nodes.get(0), nodes.get(1)));
+    }
+
+    private static String route(Route<?> route)
+    {
+        return route == null
+                ? "none"
+                : route.cost() + " " + join(route.path());
+    }
+
+    // the nodes separated by spaces
+    private static String join(List<?> nodes)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for (Object node : nodes)
+        {
+            sb.append(sb.length() > 0 ? " " : "");
+            sb.append(node);
+        }
+
+        return sb.toString();
+    }
+
+    private static void pair(List<?> nodes)
+    {
+        if (nodes.size() != 2)
+        {
+            throw new IllegalArgumentException("expected two nodes");
+        }
+    }
+
+    private static void respond(
+            HttpExchange exchange,
+            int status,
+            String text) throws IOException
+    {
+        byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set(
+                "Content-Type",
+                "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(body);
+        }
+    }
+
+    // a virtual thread for every task when the JDK has them, looked up by
+    // reflection so the server still runs on older JDKs, and a fixed pool
+    // otherwise
+    private static ExecutorService executor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors()
+                            * THREADS_PER_CORE);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        ReachabilityIndex.java answers if a path exists between two nodes of a
+        directed graph, mostly without searching the graph.
+
+        The graph is reduced to its condensation, the graph of its strongly
+        connected components, which has no cycles. Two nodes of the same
+        component always reach each other. Between components the index keeps
+        GRAIL labels: every traversal of the condensation gives each component
+        an interval holding the post order numbers of everything it reaches,
+        so if the interval of one component does not contain the interval of
+        another, the first can not reach the second. The numbering of the
+        components is topological, which rules out another half of the pairs.
+        Only when all the labels allow a path is the condensation searched,
+        and that search skips every component whose labels rule out the goal.
+
+        The index remembers the version of the graph it was built for and is
+        built again the first time it is used after nodes or edges have been
+        added to the graph.
+    Usage:
+        Create an index for a directed graph and ask it about pairs of nodes:
+            ReachabilityIndex<Key> index = new ReachabilityIndex<>(graph);
+            index.reaches(from, to);
+
+        Requires `WeightedAdjacencyList.java`, `CompressedGraph.java`,
+        `StronglyConnectedComponents.java`, and `SearchContext.java` to
+        function.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class ReachabilityIndex<Key>
+{
+    // amount of traversals, each adds an interval to the label of every
+    // component and rules out more pairs
+    private static final int TRAVERSALS = 3;
+
+    private final WeightedAdjacencyList<Key> graph;
+
+    // the labels and the version of the graph they were built for, replaced
+    // as a whole so readers always see a matching pair
+    private volatile Labels labels;
+
+    public ReachabilityIndex(WeightedAdjacencyList<Key> graph)
+    {
+        this.graph = graph;
+        this.labels = new Labels(graph);
+    }
+
+    // checks if there is a path from `from` to `to`, false if either is not
+    // in the graph
+    public boolean reaches(Key from, Key to)
+    {
+        Node<Key> start = graph.node(from);
+        Node<Key> end = graph.node(to);
+
+        if (start == null || end == null)
+        {
+            return false;
+        }
+
+        Labels current = current();
+
+        return current.reaches(
+                current.component[start.index],
+                current.component[end.index]);
+    }
+
+    // amount of strongly connected components in the graph
+    public int components()
+    {
+        return current().components;
+    }
+
+    // the labels for the current version of the graph, built again if the
+    // graph has changed
+    private Labels current()
+    {
+        Labels current = labels;
+
+        if (current.version != graph.version())
+        {
+            synchronized (this)
+            {
+                if (labels.version != graph.version())
+                {
+                    labels = new Labels(graph);
+                }
+
+                current = labels;
+            }
+        }
+
+        return current;
+    }
+
+    // the component of every node and the condensation with its labels
+    private static class Labels
+    {
+        private final int version;
+        private final int[] component;
+        private final int components;
+
+        // the condensation as compressed rows
+        private final int[] offsets;
+        private final int[] targets;
+
+        // interval `i` of component `c` is `low[c * TRAVERSALS + i]` to
+        // `post[c * TRAVERSALS + i]`
+        private final int[] low;
+        private final int[] post;
+
+        <Key> Labels(WeightedAdjacencyList<Key> graph)
+        {
+            version = graph.version();
+
+            // the nodes of the frozen graph keep their `Node.index`
+            StronglyConnectedComponents strong =
+                    StronglyConnectedComponents.of(CompressedGraph.from(graph));
+
+            component = new int[graph.nodes()];
+
+            for (int node = 0; node < component.length; node++)
+            {
+                component[node] = strong.component(node);
+            }
+
+            components = strong.components();
+
+            int[][] condensation = strong.condensation();
+            offsets = condensation[0];
+            targets = condensation[1];
+
+            low = new int[components * TRAVERSALS];
+            post = new int[components * TRAVERSALS];
+
+            // a fixed seed keeps the labels, and so the work of a query, the
+            // same from run to run
+            Random random = new Random(components);
+
+            for (int i = 0; i < TRAVERSALS; i++)
+            {
+                label(i, random);
+            }
+        }
+
+        // numbers the components in the post order of a traversal that
+        // visits the children of every component starting from a random one,
+        // and gives each the lowest number among everything it reaches
+        private void label(int traversal, Random random)
+        {
+            boolean[] marked = new boolean[components];
+            int[] stack = new int[components];
+            int[] first = new int[components];
+            int[] cursor = new int[components];
+            int number = 0;
+
+            // every component has a higher number than those it reaches, so
+            // going down from the top only starts traversals at components
+            // that nothing else reaches
+            for (int root = components - 1; root >= 0; root--)
+            {
+                if (marked[root])
+                {
+                    continue;
+                }
+
+                int size = 0;
+                stack[size++] = root;
+                marked[root] = true;
+                start(root, first, cursor, random);
+
+                while (size > 0)
+                {
+                    int c = stack[size - 1];
+                    int degree = offsets[c + 1] - offsets[c];
+
+                    if (cursor[c] < degree)
+                    {
+                        int child = targets[offsets[c]
+                                + (first[c] + cursor[c]++) % degree];
+
+                        if (!marked[child])
+                        {
+                            marked[child] = true;
+                            start(child, first, cursor, random);
+                            stack[size++] = child;
+                        }
+
+                        continue;
+                    }
+
+                    // every child is numbered, and since the condensation
+                    // has no cycles every child has been finished
+                    int label = c * TRAVERSALS + traversal;
+                    int lowest = number;
+
+                    for (int e = offsets[c]; e < offsets[c + 1]; e++)
+                    {
+                        lowest = Math.min(
+                                lowest,
+                                low[targets[e] * TRAVERSALS + traversal]);
+                    }
+
+                    post[label] = number++;
+                    low[label] = lowest;
+                    size--;
+                }
+            }
+        }
+
+        private void start(int c, int[] first, int[] cursor, Random random)
+        {
+            int degree = offsets[c + 1] - offsets[c];
+
+            first[c] = degree > 1 ? random.nextInt(degree) : 0;
+            cursor[c] = 0;
+        }
+
+        // checks if the labels allow a path from component `a` to component
+        // `b`, if they do not there is none
+        private boolean allows(int a, int b)
+        {
+            // edges only go from higher to lower numbers
+            if (a < b)
+            {
+                return false;
+            }
+
+            int labelA = a * TRAVERSALS;
+            int labelB = b * TRAVERSALS;
+
+            for (int i = 0; i < TRAVERSALS; i++)
+            {
+                if (low[labelB + i] < low[labelA + i]
+                        || post[labelB + i] > post[labelA + i])
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        boolean reaches(int from, int to)
+        {
+            if (from == to)
+            {
+                return true;
+            }
+
+            if (!allows(from, to))
+            {
+                return false;
+            }
+
+            // the labels can not decide, search the condensation through the
+            // components they do not rule out
+            SearchContext context = SearchContext.acquire(components);
+
+            try
+            {
+                int[] stack = new int[16];
+                int size = 0;
+
+                stack[size++] = from;
+                context.visit(from);
+
+                while (size > 0)
+                {
+                    int c = stack[--size];
+
+                    for (int e = offsets[c]; e < offsets[c + 1]; e++)
+                    {
+                        int child = targets[e];
+
+                        if (child == to)
+                        {
+                            return true;
+                        }
+
+                        if (context.isVisited(child) || !allows(child, to))
+                        {
+                            continue;
+                        }
+
+                        context.visit(child);
+
+                        if (size == stack.length)
+                        {
+                            stack = Arrays.copyOf(stack, size * 2);
+                        }
+
+                        stack[size++] = child;
+                    }
+                }
+
+                return false;
+            }
+            finally
+            {
+                context.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        Route.java contains the result of `ShortestPath.route`: the path
+        through all waypoints, stitched together from the shortest path of
+        every leg, and the cost of every leg.
+    Usage:
+        Ask `ShortestPath.route` for a route through a list of waypoints, leg
+        `i` goes from waypoint `i` to waypoint `i + 1`:
+            Route<Integer> route = ShortestPath.route(graph, waypoints);
+            route.path();
+            route.cost(0);
+ */
+
+import java.util.LinkedList;
+
+public class Route<Key>
+{
+    private final LinkedList<Key> path;
+    private final long[] costs;
+    private final long cost;
+
+    public Route(LinkedList<Key> path, long[] costs)
+    {
+        this.path = path;
+        this.costs = costs;
+
+        long total = 0;
+
+        for (long legCost : costs)
+        {
+            total += legCost;
+        }
+
+        this.cost = total;
+    }
+
+    // the nodes from the first waypoint to the last, every waypoint between
+    // them appears once where one leg ends and the next begins
+    public LinkedList<Key> path() { return path; }
+
+    // amount of legs, one less than the amount of waypoints
+    public int legs() { return costs.length; }
+
+    // the cost of the given leg
+    public long cost(int leg) { return costs[leg]; }
+
+    // the cost of the whole route
+    public long cost() { return cost; }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(path);
+        sb.append(String.format(" (cost %d: ", cost));
+
+        for (int leg = 0; leg < costs.length; leg++)
+        {
+            sb.append(leg > 0 ? " + " : "");
+            sb.append(costs[leg]);
+        }
+
+        sb.append(')');
+
+        return sb.toString();
+    }
+}
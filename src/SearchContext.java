@@ -0,0 +1,188 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        SearchContext.java holds the state of a single search over a graph
+        with densely numbered nodes: the distance and predecessor of every
+        reached node, which nodes are visited, and the heap of nodes left to
+        visit. The graph itself is never written to, so any amount of searches
+        can run on the same graph at the same time as long as each has its
+        own context.
+
+        Instead of clearing every array before a search, each entry is stamped
+        with the generation it was written in. Starting a new search only
+        increments the generation, so entries from earlier searches read as
+        unreached, and a search costs time for the nodes it touches and not
+        for the whole graph.
+    Usage:
+        Acquire a context from the pool of the current thread and release it
+        once the search is done:
+            SearchContext context = SearchContext.acquire(graph.nodes());
+            try
+            {
+                ...
+            }
+            finally
+            {
+                context.release();
+            }
+
+        Requires `IndexedMinHeap.java` to function.
+ */
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+public class SearchContext
+{
+    // the distance of nodes that have not been reached in this search
+    public static final long UNREACHED = Long.MAX_VALUE;
+
+    // the contexts released by each thread, ready to be acquired again
+    private static final ThreadLocal<ArrayDeque<SearchContext>> pool =
+            ThreadLocal.withInitial(ArrayDeque::new);
+
+    private long[] distance;
+    private int[] previous;
+
+    // the generation in which the distance and previous node of each node,
+    // or the visited mark of each node, was last written
+    private int[] reached;
+    private int[] visited;
+
+    private int generation;
+
+    private final IndexedMinHeap heap;
+
+    // scratch space for searches that keep a queue or a stack of nodes, and
+    // a position for each of them, instead of a heap. never stamped, so a
+    // search must only read the entries it wrote itself
+    private int[] queue;
+    private int[] cursors;
+
+    public SearchContext(int nodes)
+    {
+        distance = new long[nodes];
+        previous = new int[nodes];
+        reached = new int[nodes];
+        visited = new int[nodes];
+        queue = new int[nodes];
+        cursors = new int[nodes];
+
+        heap = new IndexedMinHeap(nodes);
+
+        generation = 1;
+    }
+
+    // takes a context from the pool of the current thread, or creates one if
+    // the pool is empty, and prepares it for a search over `nodes` nodes
+    public static SearchContext acquire(int nodes)
+    {
+        SearchContext context = pool.get().poll();
+
+        if (context == null)
+        {
+            return new SearchContext(nodes);
+        }
+
+        context.reset(nodes);
+
+        return context;
+    }
+
+    // returns the context to the pool of the current thread, it must not be
+    // used after being released
+    public void release()
+    {
+        pool.get().push(this);
+    }
+
+    // forgets everything from the previous search and makes room for `nodes`
+    // nodes
+    public void reset(int nodes)
+    {
+        grow(nodes);
+
+        heap.clear();
+
+        generation++;
+
+        // the generation wrapped around, stamps from long ago could be
+        // mistaken for current ones so clear them all once
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(reached, 0);
+            Arrays.fill(visited, 0);
+
+            generation = 1;
+        }
+    }
+
+    // the nodes `0` to `capacity() - 1` can be used in a search
+    public int capacity() { return reached.length; }
+
+    // the heap of nodes left to visit, empty at the start of every search
+    public IndexedMinHeap heap() { return heap; }
+
+    // an array of `capacity()` entries for a queue or stack of nodes, and one
+    // for a position per node, with whatever earlier searches left in them
+    public int[] queue() { return queue; }
+    public int[] cursors() { return cursors; }
+
+    // the distance of the node, or `UNREACHED`
+    public long distance(int node)
+    {
+        return reached[node] == generation ? distance[node] : UNREACHED;
+    }
+
+    // the node the given node was reached from, or -1
+    public int previous(int node)
+    {
+        return reached[node] == generation ? previous[node] : -1;
+    }
+
+    // checks if the node has been reached in this search
+    public boolean isReached(int node)
+    {
+        return reached[node] == generation;
+    }
+
+    // sets the distance of the node and the node it was reached from
+    public void reach(int node, long distance, int previous)
+    {
+        this.reached[node] = generation;
+        this.distance[node] = distance;
+        this.previous[node] = previous;
+    }
+
+    // checks if the node has been visited in this search
+    public boolean isVisited(int node)
+    {
+        return visited[node] == generation;
+    }
+
+    // marks the node as visited in this search
+    public void visit(int node)
+    {
+        visited[node] = generation;
+    }
+
+    private void grow(int nodes)
+    {
+        if (nodes <= reached.length)
+        {
+            return;
+        }
+
+        // new entries are 0 which is never a current generation
+        distance = Arrays.copyOf(distance, nodes);
+        previous = Arrays.copyOf(previous, nodes);
+        reached = Arrays.copyOf(reached, nodes);
+        visited = Arrays.copyOf(visited, nodes);
+        queue = new int[nodes];
+        cursors = new int[nodes];
+
+        heap.grow(nodes);
+    }
+}
@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/10/05
-    Updated: 2020/10/06
+    Updated: 2026/10/17
     Purpose:
         ShortestPath.java attempts at finding the shortest path between two
         nodes, by passing through a set of nodes (that can be the zero set).
@@ -19,63 +19,123 @@
         Only the first argument is required. The other two are optional.
         Once the program has processed the graph file, the user can input
         a series of nodes to have the algorithm search through. The first
-        node is the starting node and the last node is the goal node.
+        node is the starting node and the last node is the goal node. If the
+        series starts with `o`, the nodes in between are visited in whichever
+        order is the cheapest rather than in the order given.
 
-        Requires `WeightedAdjacencyList.java` and `TestDataParsing.java` to
-        function.
+        Graphs in the IndexedGraph structure, such as CompressedGraph, are
+        searched through the overload taking an IndexedGraph.
+
+        `route` finds the path through a list of waypoints, searching the
+        legs in parallel and returning the cost of each with the path. The
+        legs that start at the same waypoint share one search from it.
+        `optimalRoute` visits the waypoints between the first and last in the
+        cheapest order instead, as found by WaypointOrder.
+
+        `distanceMatrix` gives the distance from each of a list of sources to
+        each of a list of targets, with one search per source, run in
+        parallel, that stops once every target is visited.
+
+        The searches keep their state in a SearchContext, so any amount of
+        threads can search the same graph at the same time.
+
+        For single start and goal queries on an IndexedGraph,
+        `bidirectionalSearch` searches from both ends at once and visits
+        roughly half as many nodes as `search`. Passing a Heuristic, such as
+        Landmarks, to `search` turns it into A* and directs it towards the
+        goal instead.
+
+        IntWeightedGraphs are searched through the overload taking an int
+        array for the path, which allocates nothing once the context has
+        grown to the size of the graph.
+
+        Requires `WeightedAdjacencyList.java`, `IndexedGraph.java`,
+        `IntWeightedGraph.java`, `IndexedMinHeap.java`, `SearchContext.java`,
+        `Heuristic.java`, `Route.java`, `WaypointOrder.java`,
+        `IntIntHashMap.java`, `CompressedGraph.java`, `GraphLoader.java`, and
+        `ParallelGraphLoader.java` to function.
  */
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class ShortestPath
 {
+    // finds the shortest path from `from` to `to`, using a search context
+    // from the pool of the current thread
     public static <Key> LinkedList<Key> search(
             WeightedAdjacencyList<Key> graph,
             Key from,
             Key to)
     {
-        // the keys that have been marked as visited
-        HashSet<Key> marked =
-                new HashSet<>();
+        SearchContext context = SearchContext.acquire(graph.nodes());
 
-        // gives the previous node for the given node identifier, through
-        // the end node the fastest path can be found
-        HashMap<Key, Node<Key>> previousNodes =
-                new HashMap<>();
+        try
+        {
+            return search(graph, from, to, context);
+        }
+        finally
+        {
+            context.release();
+        }
+    }
 
-        // a new queue that is sorted based on the distance of the node from
-        // the start
-        PriorityQueue<Node<Key>> toVisit =
-                new PriorityQueue<>(
-                        new Node.NodeDistanceComparator<>());
+    // finds the shortest path from `from` to `to`, keeping the distances and
+    // predecessors in `context` instead of in the nodes, so that other
+    // searches can run on the same graph at the same time
+    public static <Key> LinkedList<Key> search(
+            WeightedAdjacencyList<Key> graph,
+            Key from,
+            Key to,
+            SearchContext context)
+    {
+        Node<Key> startNode = graph.node(from);
+        Node<Key> endNode = graph.node(to);
+
+        if (startNode == null || endNode == null)
+        {
+            return null;
+        }
+
+        context.reset(graph.nodes());
+
+        // the nodes waiting to be visited, ordered by their distance from the
+        // start. a node is only ever in the heap once, a shorter distance
+        // lowers its priority instead
+        IndexedMinHeap toVisit =
+                context.heap();
 
         // initial state
-        marked.add(from);
-        toVisit.add(graph.node(from));
+        int start = startNode.index;
+
+        context.reach(start, 0, -1);
+        toVisit.insert(start, 0);
 
         // while there are nodes to visit, do Dijkstra's algorithm
         while (!toVisit.isEmpty())
         {
-            // get the node with the shortest distance in the queue
-            Node<Key> node = toVisit.remove();
+            // get the node with the shortest distance in the heap, its
+            // distance is final
+            Node<Key> node = graph.nodeAt(toVisit.removeMin());
+            long nodeDistance = context.distance(node.index);
 
             // end node was found, trace pathing into linked list
-            if (node.identifier.equals(to))
+            if (node == endNode)
             {
                 LinkedList<Key> path =
                         new LinkedList<>();
 
                 // iterate backwards and add onto the list
-                Node<Key> current = node;
-                do
+                for (int current = node.index; current >= 0;
+                     current = context.previous(current))
                 {
-                    path.addFirst(current.identifier);
-                    current = previousNodes.get(current.identifier);
+                    path.addFirst(graph.nodeAt(current).identifier);
                 }
-                while (current != null);
 
                 return path;
             }
@@ -84,28 +144,91 @@ public class ShortestPath
             for (KeyValuePair<Node<Key>, Integer> nodeAndWeight
                         : node.adjacent)
             {
-                // skip all marked nodes
-                if (!marked.contains(nodeAndWeight.Key.identifier))
+                int adjacent = nodeAndWeight.Key.index;
+                long distance = nodeDistance + nodeAndWeight.Value;
+
+                // if the distance is less than whats found for the adjacent
+                // node assign it the new distance, set the predecessor to be
+                // the current node (not the adjacent) and queue it, or move
+                // it forward if it already is queued. nodes that are already
+                // visited never get a shorter distance
+                if (distance < context.distance(adjacent))
                 {
-                    int distance = node.distance + nodeAndWeight.Value;
+                    context.reach(adjacent, distance, node.index);
+                    toVisit.offer(adjacent, distance);
+                }
+            }
+        }
 
-                    // if the distance is less than whats found in the adjacent
-                    // node assign it the new distance and set the predecessor
-                    // to be the current node (not the adjacent)
-                    if (distance < nodeAndWeight.Key.distance)
-                    {
-                        nodeAndWeight.Key.distance =
-                                distance;
+        // no path found
+        return null;
+    }
 
-                        previousNodes.put(
-                                nodeAndWeight.Key.identifier,
-                                node);
-                    }
+    // finds the shortest path from `from` to `to` in the given indexed graph,
+    // using a search context from the pool of the current thread
+    public static <Key> LinkedList<Key> search(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to)
+    {
+        SearchContext context = SearchContext.acquire(graph.nodes());
+
+        try
+        {
+            return search(graph, from, to, context);
+        }
+        finally
+        {
+            context.release();
+        }
+    }
+
+    // finds the shortest path from `from` to `to` in the given indexed graph,
+    // keeping the state of the search in `context`
+    public static <Key> LinkedList<Key> search(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to,
+            SearchContext context)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        if (start < 0 || end < 0)
+        {
+            return null;
+        }
+
+        context.reset(graph.nodes());
+
+        // the nodes waiting to be visited, ordered by their distance
+        IndexedMinHeap toVisit =
+                context.heap();
+
+        context.reach(start, 0, -1);
+        toVisit.insert(start, 0);
+
+        while (!toVisit.isEmpty())
+        {
+            int node = toVisit.removeMin();
 
-                    // add the adjacent node to the marked set and the visit
-                    // list
-                    toVisit.add(nodeAndWeight.Key);
-                    marked.add(nodeAndWeight.Key.identifier);
+            // end node was found, trace pathing into linked list
+            if (node == end)
+            {
+                return path(graph, context, end);
+            }
+
+            long nodeDistance = context.distance(node);
+
+            for (int e = graph.begin(node); e < graph.end(node); e++)
+            {
+                int adjacent = graph.target(e);
+                long distance = nodeDistance + graph.weight(e);
+
+                if (distance < context.distance(adjacent))
+                {
+                    context.reach(adjacent, distance, node);
+                    toVisit.offer(adjacent, distance);
                 }
             }
         }
@@ -114,7 +237,858 @@ public class ShortestPath
         return null;
     }
 
-    // initializes the nodes' meta information to fit this algorithm
+    // finds the shortest path from `from` to `to` in the given int graph,
+    // keeping the state of the search in `context`. the path is written to
+    // the start of `path`, which must have room for `graph.nodes()` keys, and
+    // its length is returned, or -1 if there is no path
+    public static int search(
+            IntWeightedGraph graph,
+            int from,
+            int to,
+            SearchContext context,
+            int[] path)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        if (start < 0 || end < 0)
+        {
+            return -1;
+        }
+
+        context.reset(graph.nodes());
+
+        // the nodes waiting to be visited, ordered by their distance
+        IndexedMinHeap toVisit =
+                context.heap();
+
+        context.reach(start, 0, -1);
+        toVisit.insert(start, 0);
+
+        while (!toVisit.isEmpty())
+        {
+            int node = toVisit.removeMin();
+
+            // end node was found, trace pathing into the array
+            if (node == end)
+            {
+                return graph.path(context, end, path);
+            }
+
+            long nodeDistance = context.distance(node);
+            int[] targets = graph.targets(node);
+            int[] weights = graph.weights(node);
+
+            for (int i = 0; i < graph.degree(node); i++)
+            {
+                int adjacent = targets[i];
+                long distance = nodeDistance + weights[i];
+
+                if (distance < context.distance(adjacent))
+                {
+                    context.reach(adjacent, distance, node);
+                    toVisit.offer(adjacent, distance);
+                }
+            }
+        }
+
+        // no path found
+        return -1;
+    }
+
+    // finds the shortest path from `from` to `to` with A*, guided by the given
+    // heuristic, using a search context from the pool of the current thread
+    public static <Key> LinkedList<Key> search(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to,
+            Heuristic heuristic)
+    {
+        SearchContext context = SearchContext.acquire(graph.nodes());
+
+        try
+        {
+            return search(graph, from, to, heuristic, context);
+        }
+        finally
+        {
+            context.release();
+        }
+    }
+
+    // finds the shortest path from `from` to `to` with A*: nodes are visited
+    // in order of their distance plus the estimated distance left to `to`,
+    // so nodes leading away from the goal are put off. the heuristic must
+    // never overestimate the distance left
+    public static <Key> LinkedList<Key> search(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to,
+            Heuristic heuristic,
+            SearchContext context)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        if (start < 0 || end < 0)
+        {
+            return null;
+        }
+
+        context.reset(graph.nodes());
+
+        // the nodes waiting to be visited, ordered by their distance plus
+        // their estimated distance to the end node
+        IndexedMinHeap toVisit =
+                context.heap();
+
+        context.reach(start, 0, -1);
+        toVisit.insert(start, heuristic.estimate(start, end));
+
+        while (!toVisit.isEmpty())
+        {
+            int node = toVisit.removeMin();
+
+            // end node was found, trace pathing into linked list
+            if (node == end)
+            {
+                return path(graph, context, end);
+            }
+
+            long nodeDistance = context.distance(node);
+
+            for (int e = graph.begin(node); e < graph.end(node); e++)
+            {
+                int adjacent = graph.target(e);
+                long distance = nodeDistance + graph.weight(e);
+
+                // a node that was already visited is queued again if a
+                // shorter path to it is found, which only happens if the
+                // heuristic is not consistent
+                if (distance < context.distance(adjacent))
+                {
+                    context.reach(adjacent, distance, node);
+                    toVisit.offer(
+                            adjacent,
+                            distance + heuristic.estimate(adjacent, end));
+                }
+            }
+        }
+
+        // no path found
+        return null;
+    }
+
+    // the distance from the node with dense identifier `start` to every node
+    // of the graph, `SearchContext.UNREACHED` for nodes without a path
+    public static long[] distances(
+            IndexedGraph<?> graph,
+            int start)
+    {
+        long[] distances = new long[graph.nodes()];
+        Arrays.fill(distances, SearchContext.UNREACHED);
+
+        IndexedMinHeap toVisit =
+                new IndexedMinHeap(graph.nodes());
+
+        distances[start] = 0;
+        toVisit.insert(start, 0);
+
+        while (!toVisit.isEmpty())
+        {
+            int node = toVisit.removeMin();
+
+            for (int e = graph.begin(node); e < graph.end(node); e++)
+            {
+                int adjacent = graph.target(e);
+                long distance = distances[node] + graph.weight(e);
+
+                if (distance < distances[adjacent])
+                {
+                    distances[adjacent] = distance;
+                    toVisit.offer(adjacent, distance);
+                }
+            }
+        }
+
+        return distances;
+    }
+
+    // finds the shortest path from `from` to `to` by searching forwards from
+    // `from` and backwards from `to` at the same time, using search contexts
+    // from the pool of the current thread
+    public static <Key> LinkedList<Key> bidirectionalSearch(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to)
+    {
+        SearchContext forward = SearchContext.acquire(graph.nodes());
+        SearchContext backward = SearchContext.acquire(graph.nodes());
+
+        try
+        {
+            return bidirectionalSearch(graph, from, to, forward, backward);
+        }
+        finally
+        {
+            backward.release();
+            forward.release();
+        }
+    }
+
+    // finds the shortest path from `from` to `to` with one search forwards
+    // from `from` and one backwards from `to` over the reverse graph. the
+    // search with the closest node left is always the one to advance, and
+    // once the closest nodes of both together are no closer than the best
+    // path found where the searches met, that path is the shortest
+    public static <Key> LinkedList<Key> bidirectionalSearch(
+            IndexedGraph<Key> graph,
+            Key from,
+            Key to,
+            SearchContext forward,
+            SearchContext backward)
+    {
+        int start = graph.id(from);
+        int end = graph.id(to);
+
+        if (start < 0 || end < 0)
+        {
+            return null;
+        }
+
+        IndexedGraph<Key> reverse = graph.reverse();
+
+        forward.reset(graph.nodes());
+        backward.reset(graph.nodes());
+
+        IndexedMinHeap forwardHeap = forward.heap();
+        IndexedMinHeap backwardHeap = backward.heap();
+
+        forward.reach(start, 0, -1);
+        forwardHeap.insert(start, 0);
+
+        backward.reach(end, 0, -1);
+        backwardHeap.insert(end, 0);
+
+        // the length of the best path found so far, and the node where its
+        // forward and backward halves meet
+        long best = start == end ? 0 : SearchContext.UNREACHED;
+        int meeting = start == end ? start : -1;
+
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty())
+        {
+            long forwardMin = forwardHeap.peekPriority();
+            long backwardMin = backwardHeap.peekPriority();
+
+            // no path through an unvisited node can be shorter than the best
+            if (forwardMin + backwardMin >= best)
+            {
+                break;
+            }
+
+            // advance the search with the closer node, which keeps both
+            // searches at roughly the same radius
+            boolean isForward = forwardMin <= backwardMin;
+
+            IndexedGraph<Key> direction = isForward ? graph : reverse;
+            SearchContext self = isForward ? forward : backward;
+            SearchContext other = isForward ? backward : forward;
+
+            int node = self.heap().removeMin();
+            long nodeDistance = self.distance(node);
+
+            for (int e = direction.begin(node); e < direction.end(node); e++)
+            {
+                int adjacent = direction.target(e);
+                long distance = nodeDistance + direction.weight(e);
+
+                if (distance < self.distance(adjacent))
+                {
+                    self.reach(adjacent, distance, node);
+                    self.heap().offer(adjacent, distance);
+                }
+
+                // the other search has reached the adjacent node, so there is
+                // a path through this edge
+                if (other.isReached(adjacent)
+                        && distance + other.distance(adjacent) < best)
+                {
+                    best = distance + other.distance(adjacent);
+                    meeting = adjacent;
+                }
+            }
+        }
+
+        // no path found
+        if (meeting < 0)
+        {
+            return null;
+        }
+
+        // the forward half leads up to the meeting node and the backward
+        // predecessors lead from it to the end
+        LinkedList<Key> path = path(graph, forward, meeting);
+
+        for (int current = backward.previous(meeting); current >= 0;
+             current = backward.previous(current))
+        {
+            path.addLast(graph.key(current));
+        }
+
+        return path;
+    }
+
+    // follows the predecessors in the context from `end` back to the start
+    private static <Key> LinkedList<Key> path(
+            IndexedGraph<Key> graph,
+            SearchContext context,
+            int end)
+    {
+        LinkedList<Key> path =
+                new LinkedList<>();
+
+        for (int current = end; current >= 0;
+             current = context.previous(current))
+        {
+            path.addFirst(graph.key(current));
+        }
+
+        return path;
+    }
+
+    // finds the shortest route through the waypoints, in the given order,
+    // on the threads of the common pool
+    public static <Key> Route<Key> route(
+            IndexedGraph<Key> graph,
+            List<Key> waypoints)
+    {
+        return route(graph, waypoints, ForkJoinPool.commonPool());
+    }
+
+    // same as for an IndexedGraph, the graph is frozen into a
+    // CompressedGraph first, so graphs that are routed through more than
+    // once should be frozen once by the caller
+    public static <Key> Route<Key> route(
+            WeightedAdjacencyList<Key> graph,
+            List<Key> waypoints)
+    {
+        return route(CompressedGraph.from(graph), waypoints);
+    }
+
+    // finds the shortest route through the waypoints, in the given order, or
+    // null if some leg has no path. the legs are searched on the threads of
+    // `pool`, each with its own search context. the legs starting at the
+    // same waypoint share a single search from it, which runs until the ends
+    // of all of them are visited
+    public static <Key> Route<Key> route(
+            IndexedGraph<Key> graph,
+            List<Key> waypoints,
+            ForkJoinPool pool)
+    {
+        if (waypoints.isEmpty())
+        {
+            throw new IllegalArgumentException("a route needs a waypoint");
+        }
+
+        int[] stops = new int[waypoints.size()];
+
+        for (int i = 0; i < stops.length; i++)
+        {
+            stops[i] = graph.id(waypoints.get(i));
+
+            if (stops[i] < 0)
+            {
+                return null;
+            }
+        }
+
+        // the first leg starting at the same waypoint as each leg, which is
+        // the one to search for all of them
+        int legs = stops.length - 1;
+        int[] first = new int[legs];
+
+        for (int leg = 0; leg < legs; leg++)
+        {
+            first[leg] = leg;
+
+            for (int other = 0; other < leg; other++)
+            {
+                if (stops[other] == stops[leg])
+                {
+                    first[leg] = other;
+                    break;
+                }
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        LinkedList<Key>[] paths = new LinkedList[legs];
+        long[] costs = new long[legs];
+
+        if (legs > 0)
+        {
+            pool.invoke(
+                    new Legs<>(graph, stops, first, paths, costs, 0, legs));
+        }
+
+        // stitch the legs together, the start of every leg is the end of the
+        // one before it
+        LinkedList<Key> path =
+                new LinkedList<>();
+
+        path.add(graph.key(stops[0]));
+
+        for (LinkedList<Key> subpath : paths)
+        {
+            // there was no path for this leg, so there is no route
+            if (subpath == null)
+            {
+                return null;
+            }
+
+            subpath.removeFirst();
+            path.addAll(subpath);
+        }
+
+        return new Route<>(path, costs);
+    }
+
+    // finds the cheapest route from the first waypoint to the last through
+    // all waypoints between them, in whichever order is cheapest, on the
+    // threads of the common pool
+    public static <Key> Route<Key> optimalRoute(
+            IndexedGraph<Key> graph,
+            List<Key> waypoints)
+    {
+        return optimalRoute(graph, waypoints, ForkJoinPool.commonPool());
+    }
+
+    // same as for an IndexedGraph, the graph is frozen into a
+    // CompressedGraph first
+    public static <Key> Route<Key> optimalRoute(
+            WeightedAdjacencyList<Key> graph,
+            List<Key> waypoints)
+    {
+        return optimalRoute(CompressedGraph.from(graph), waypoints);
+    }
+
+    // finds the cheapest route from the first waypoint to the last through
+    // all waypoints between them, or null if there is none. the distances
+    // between all waypoints are found by one search from each of them, on
+    // the threads of `pool`, and WaypointOrder picks the order from those.
+    // the path of every leg is followed back through the same searches
+    public static <Key> Route<Key> optimalRoute(
+            IndexedGraph<Key> graph,
+            List<Key> waypoints,
+            ForkJoinPool pool)
+    {
+        // at most one waypoint between the ends, the order is given
+        if (waypoints.size() <= 3)
+        {
+            return route(graph, waypoints, pool);
+        }
+
+        int[] stops = new int[waypoints.size()];
+
+        for (int i = 0; i < stops.length; i++)
+        {
+            stops[i] = graph.id(waypoints.get(i));
+
+            if (stops[i] < 0)
+            {
+                return null;
+            }
+        }
+
+        IntIntHashMap[] trees = new IntIntHashMap[stops.length];
+        long[][] matrix = matrix(graph, stops, stops, trees, pool);
+
+        int[] order = WaypointOrder.order(matrix);
+
+        if (WaypointOrder.cost(matrix, order) == SearchContext.UNREACHED)
+        {
+            return null;
+        }
+
+        // the legs are followed back through the trees of the searches that
+        // filled the matrix, instead of being searched again
+        LinkedList<Key> path =
+                new LinkedList<>();
+        long[] costs = new long[order.length - 1];
+
+        path.add(graph.key(stops[order[0]]));
+
+        for (int leg = 0; leg < costs.length; leg++)
+        {
+            int from = order[leg];
+            int to = order[leg + 1];
+
+            costs[leg] = matrix[from][to];
+            path.addAll(branch(graph, trees[from], stops[from], stops[to]));
+        }
+
+        return new Route<>(path, costs);
+    }
+
+    // the distance from every source to every target, on the threads of the
+    // common pool
+    public static <Key> long[][] distanceMatrix(
+            IndexedGraph<Key> graph,
+            List<Key> sources,
+            List<Key> targets)
+    {
+        return distanceMatrix(
+                graph,
+                sources,
+                targets,
+                ForkJoinPool.commonPool());
+    }
+
+    // same as for an IndexedGraph, the graph is frozen into a
+    // CompressedGraph first
+    public static <Key> long[][] distanceMatrix(
+            WeightedAdjacencyList<Key> graph,
+            List<Key> sources,
+            List<Key> targets)
+    {
+        return distanceMatrix(CompressedGraph.from(graph), sources, targets);
+    }
+
+    // the distance `matrix[i][j]` from source i to target j,
+    // `SearchContext.UNREACHED` if there is no path or either is not in the
+    // graph. every source is searched once, on the threads of `pool`, and
+    // the search stops as soon as every target has been visited
+    public static <Key> long[][] distanceMatrix(
+            IndexedGraph<Key> graph,
+            List<Key> sources,
+            List<Key> targets,
+            ForkJoinPool pool)
+    {
+        int[] from = new int[sources.size()];
+        int[] to = new int[targets.size()];
+
+        for (int i = 0; i < from.length; i++)
+        {
+            from[i] = graph.id(sources.get(i));
+        }
+
+        for (int i = 0; i < to.length; i++)
+        {
+            to[i] = graph.id(targets.get(i));
+        }
+
+        return matrix(graph, from, to, null, pool);
+    }
+
+    // the distances between the nodes with the given dense identifiers, -1
+    // for nodes not in the graph. if `trees` is not null, the branches of
+    // the search from every source that lead to the targets are kept in it
+    private static long[][] matrix(
+            IndexedGraph<?> graph,
+            int[] sources,
+            int[] targets,
+            IntIntHashMap[] trees,
+            ForkJoinPool pool)
+    {
+        long[][] matrix = new long[sources.length][];
+
+        if (sources.length > 0)
+        {
+            pool.invoke(
+                    new Rows(graph, sources, targets, matrix, trees,
+                            0, sources.length));
+        }
+
+        return matrix;
+    }
+
+    // the predecessor of every node on the shortest paths from `start` to
+    // the reached targets, the part of the search tree needed to follow
+    // them back
+    private static IntIntHashMap branches(
+            SearchContext context,
+            int start,
+            int[] targets)
+    {
+        IntIntHashMap previous = new IntIntHashMap(-1);
+
+        for (int target : targets)
+        {
+            if (target < 0 || !context.isReached(target))
+            {
+                continue;
+            }
+
+            // stop at the start, or where the path of an earlier target joins
+            for (int node = target;
+                 node != start && !previous.containsKey(node);
+                 node = context.previous(node))
+            {
+                previous.put(node, context.previous(node));
+            }
+        }
+
+        return previous;
+    }
+
+    // the nodes of the path from `start` to `end` through the branches of
+    // the tree of `start`, without `start` itself
+    private static <Key> LinkedList<Key> branch(
+            IndexedGraph<Key> graph,
+            IntIntHashMap tree,
+            int start,
+            int end)
+    {
+        LinkedList<Key> path =
+                new LinkedList<>();
+
+        for (int node = end; node != start; node = tree.get(node))
+        {
+            path.addFirst(graph.key(node));
+        }
+
+        return path;
+    }
+
+    // searches from the sources in the range `from` to `to`, filling their
+    // rows of the matrix with the distances to every target, and their
+    // branches to the targets if there are trees to keep, splitting the
+    // range in halves until it holds a single source
+    private static class Rows extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final IndexedGraph<?> graph;
+        private final int[] sources;
+        private final int[] targets;
+        private final long[][] matrix;
+        private final IntIntHashMap[] trees;
+        private final int from;
+        private final int to;
+
+        Rows(
+                IndexedGraph<?> graph,
+                int[] sources,
+                int[] targets,
+                long[][] matrix,
+                IntIntHashMap[] trees,
+                int from,
+                int to)
+        {
+            this.graph = graph;
+            this.sources = sources;
+            this.targets = targets;
+            this.matrix = matrix;
+            this.trees = trees;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int middle = (from + to) >>> 1;
+
+                invokeAll(
+                        new Rows(graph, sources, targets, matrix, trees,
+                                from, middle),
+                        new Rows(graph, sources, targets, matrix, trees,
+                                middle, to));
+
+                return;
+            }
+
+            long[] row = new long[targets.length];
+
+            // a source not in the graph reaches nothing
+            if (sources[from] < 0)
+            {
+                Arrays.fill(row, SearchContext.UNREACHED);
+                matrix[from] = row;
+
+                return;
+            }
+
+            SearchContext context = SearchContext.acquire(graph.nodes());
+
+            try
+            {
+                tree(graph, sources[from], targets, targets.length, context);
+
+                for (int i = 0; i < targets.length; i++)
+                {
+                    row[i] = targets[i] < 0
+                            ? SearchContext.UNREACHED
+                            : context.distance(targets[i]);
+                }
+
+                matrix[from] = row;
+
+                if (trees != null)
+                {
+                    trees[from] = branches(context, sources[from], targets);
+                }
+            }
+            finally
+            {
+                context.release();
+            }
+        }
+    }
+
+    // searches the legs in the range `from` to `to` that are the first to
+    // start at their waypoint, splitting the range in halves until it holds
+    // a single leg
+    private static class Legs<Key> extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final IndexedGraph<Key> graph;
+        private final int[] stops;
+        private final int[] first;
+        private final LinkedList<Key>[] paths;
+        private final long[] costs;
+        private final int from;
+        private final int to;
+
+        Legs(
+                IndexedGraph<Key> graph,
+                int[] stops,
+                int[] first,
+                LinkedList<Key>[] paths,
+                long[] costs,
+                int from,
+                int to)
+        {
+            this.graph = graph;
+            this.stops = stops;
+            this.first = first;
+            this.paths = paths;
+            this.costs = costs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int middle = (from + to) >>> 1;
+
+                invokeAll(
+                        new Legs<>(graph, stops, first, paths, costs,
+                                from, middle),
+                        new Legs<>(graph, stops, first, paths, costs,
+                                middle, to));
+
+                return;
+            }
+
+            // the leg is searched with the first leg from its waypoint
+            if (first[from] != from)
+            {
+                return;
+            }
+
+            int count = 0;
+            int[] ends = new int[first.length - from];
+
+            for (int leg = from; leg < first.length; leg++)
+            {
+                if (first[leg] == from)
+                {
+                    ends[count++] = stops[leg + 1];
+                }
+            }
+
+            SearchContext context = SearchContext.acquire(graph.nodes());
+
+            try
+            {
+                tree(graph, stops[from], ends, count, context);
+
+                for (int leg = from; leg < first.length; leg++)
+                {
+                    int end = stops[leg + 1];
+
+                    if (first[leg] == from && context.isReached(end))
+                    {
+                        paths[leg] = path(graph, context, end);
+                        costs[leg] = context.distance(end);
+                    }
+                }
+            }
+            finally
+            {
+                context.release();
+            }
+        }
+    }
+
+    // searches from `start` until the first `count` nodes of `ends` are all
+    // visited, or every reachable node is. their distances and predecessors
+    // are left in `context`. the visited marks of the context flag the ends
+    // that are not visited yet. ends of -1 are not in the graph and skipped
+    private static void tree(
+            IndexedGraph<?> graph,
+            int start,
+            int[] ends,
+            int count,
+            SearchContext context)
+    {
+        context.reset(graph.nodes());
+
+        int remaining = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            if (ends[i] >= 0 && !context.isVisited(ends[i]))
+            {
+                context.visit(ends[i]);
+                remaining++;
+            }
+        }
+
+        IndexedMinHeap toVisit =
+                context.heap();
+
+        context.reach(start, 0, -1);
+        toVisit.insert(start, 0);
+
+        while (!toVisit.isEmpty() && remaining > 0)
+        {
+            int node = toVisit.removeMin();
+
+            // an end was visited, its distance is final. a visited node is
+            // never queued again, so every end is counted once
+            if (context.isVisited(node))
+            {
+                remaining--;
+            }
+
+            long nodeDistance = context.distance(node);
+
+            for (int e = graph.begin(node); e < graph.end(node); e++)
+            {
+                int adjacent = graph.target(e);
+                long distance = nodeDistance + graph.weight(e);
+
+                if (distance < context.distance(adjacent))
+                {
+                    context.reach(adjacent, distance, node);
+                    toVisit.offer(adjacent, distance);
+                }
+            }
+        }
+    }
+
+    // initializes the nodes' meta information to fit this algorithm.
+    // the searches keep their distances in a SearchContext and no longer read
+    // `Node.distance`, so this is only kept for code that still uses it
+    @Deprecated
     public static <Key> void initializeNodes(WeightedAdjacencyList<Key> graph, Key start)
     {
         // set all nodes except the starting node to max, or infinity if
@@ -130,8 +1104,6 @@ public class ShortestPath
 
     public static void main(String[] args) throws IOException
     {
-        Scanner file = new Scanner(new File(args[0]));
-
         // if there is a second argument, that argument is for the data
         // collection.
         // the file of that path is created if it did not already exist
@@ -160,11 +1132,11 @@ public class ShortestPath
             maxNodes = Integer.parseInt(args[2]);
         }
 
-        // create graph from file
-        WeightedAdjacencyList<Integer> graph =
-                TestDataParsing.numericWeightedNodes(file, maxNodes);
-
-        file.close();
+        // create graph from file, frozen since it is only searched
+        CompressedGraph<Integer> graph =
+                ParallelGraphLoader.numericWeightedNodesCompressed(
+                        Path.of(args[0]),
+                        maxNodes);
 
         // for input
         Scanner in = new Scanner(System.in);
@@ -174,7 +1146,8 @@ public class ShortestPath
             // declare input to user
             System.out.println("Enter a series of nodes to pass through.\n" +
                     "\tFirst node will be the start and last will be the end " +
-                    "node");
+                    "node\n" +
+                    "\tStart with o to pass through them in the best order");
 
             // take input
             String input =
@@ -189,7 +1162,15 @@ public class ShortestPath
             // parse input to correct values:
             // Integer{space}Integer{space}...{space}Integer
             String[] values =
-                    input.split("\\s+");
+                    input.trim().split("\\s+");
+
+            // the nodes in between may be visited in any order
+            boolean optimize = values[0].equalsIgnoreCase("o");
+
+            if (optimize)
+            {
+                values = Arrays.copyOfRange(values, 1, values.length);
+            }
 
             // the inputted integers are the start station, the midway
             // stations, and the ending station respectively
@@ -201,48 +1182,22 @@ public class ShortestPath
                 stations.add(Integer.parseInt(val));
             }
 
-            // the total path, from first to last through the given extra nodes
-            LinkedList<Integer> path
-                    = new LinkedList<>();
-
-
             long start = System.nanoTime();
-            // go through all stations pairwise
-            for (int i = 0; i < stations.size() - 1; i++)
-            {
-                // set all nodes to their default Dijkstra state.
-                // adding the parental nodes, which is what creates the path,
-                // is dependant on distances from selected start and end nodes
-                initializeNodes(graph, stations.get(0));
 
-                // get the path between the two points
-                LinkedList<Integer> subpath =
-                        search(graph, stations.get(i), stations.get(i + 1));
+            // the route from first to last through the given extra nodes,
+            // with every leg searched from its own start
+            Route<Integer> route = optimize
+                    ? optimalRoute(graph, stations)
+                    : route(graph, stations);
 
-                // there was no from selected pair of nodes, break execution
-                // and clear path to flag that no path exists
-                if (subpath == null)
-                {
-                    path.clear();
-                    break;
-                }
-
-                // first will always be duplicate to last of previous subpath
-                subpath.removeFirst();
-
-                // add the subpath to the total path
-                path.addAll(subpath);
-            }
             long time = System.nanoTime() - start;
 
-            // if some path was found, correct errors and print it
+            // if some path was found, print it with the cost of every leg
             // also print execution time
-            if (!path.isEmpty())
+            if (route != null)
             {
-                // re-add the very first node
-                path.addFirst(stations.get(0));
-
-                System.out.printf("Path: %s\n", path);
+                System.out.printf("Path: %s\n", route.path());
+                System.out.printf("Cost: %d\n", route.cost());
                 System.out.printf("Time: %f s\n\n", time / 1e9f);
 
                 if (executionTime != null)
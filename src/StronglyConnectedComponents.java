@@ -0,0 +1,216 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        StronglyConnectedComponents.java finds the strongly connected
+        components of a directed graph, the largest groups of nodes that can
+        all reach each other, with Tarjan's algorithm run on the depth first
+        traversal of `DFS.traverseAll`, so deep graphs do not overflow the
+        stack.
+
+        The components are numbered in the order Tarjan's algorithm finishes
+        them, which is a reverse topological order of the condensation, the
+        graph with every component contracted to a single node: every edge
+        between two components goes from a higher number to a lower one.
+    Usage:
+        Import to use on any graph in the IndexedGraph structure:
+            StronglyConnectedComponents components =
+                    StronglyConnectedComponents.of(graph);
+            components.component(node);
+            components.condensation();
+
+        Requires `IndexedGraph.java` and `DFS.java` to function.
+ */
+
+import java.util.Arrays;
+
+public class StronglyConnectedComponents
+{
+    private final IndexedGraph<?> graph;
+    private final int[] component;
+    private final int components;
+
+    private StronglyConnectedComponents(
+            IndexedGraph<?> graph,
+            int[] component,
+            int components)
+    {
+        this.graph = graph;
+        this.component = component;
+        this.components = components;
+    }
+
+    // finds the strongly connected components of the graph
+    public static StronglyConnectedComponents of(IndexedGraph<?> graph)
+    {
+        Tarjan tarjan = new Tarjan(graph.nodes());
+        DFS.traverseAll(graph, tarjan);
+
+        return new StronglyConnectedComponents(
+                graph,
+                tarjan.component,
+                tarjan.components);
+    }
+
+    // the component of the node, by its dense identifier
+    public int component(int node)
+    {
+        return component[node];
+    }
+
+    // amount of strongly connected components in the graph
+    public int components()
+    {
+        return components;
+    }
+
+    // the condensation of the graph as compressed rows, one row per
+    // component. the first array holds the offsets of the rows and the second
+    // the components they have edges to, each at most once per row
+    public int[][] condensation()
+    {
+        int nodes = graph.nodes();
+
+        // the nodes of every component, grouped with a counting sort
+        int[] memberOffsets = new int[components + 1];
+
+        for (int node = 0; node < nodes; node++)
+        {
+            memberOffsets[component[node] + 1]++;
+        }
+
+        for (int c = 0; c < components; c++)
+        {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+
+        int[] members = new int[nodes];
+        int[] fill = memberOffsets.clone();
+
+        for (int node = 0; node < nodes; node++)
+        {
+            members[fill[component[node]]++] = node;
+        }
+
+        // the last component that added an edge to each component, so an
+        // edge between two components is only added once
+        int[] seen = new int[components];
+        Arrays.fill(seen, -1);
+
+        int[] offsets = new int[components + 1];
+        int[] targets = new int[16];
+        int edges = 0;
+
+        for (int c = 0; c < components; c++)
+        {
+            for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++)
+            {
+                int node = members[m];
+
+                for (int e = graph.begin(node); e < graph.end(node); e++)
+                {
+                    int adjacent = component[graph.target(e)];
+
+                    if (adjacent == c || seen[adjacent] == c)
+                    {
+                        continue;
+                    }
+
+                    seen[adjacent] = c;
+
+                    if (edges == targets.length)
+                    {
+                        targets = Arrays.copyOf(targets, edges * 2);
+                    }
+
+                    targets[edges++] = adjacent;
+                }
+            }
+
+            offsets[c + 1] = edges;
+        }
+
+        return new int[][] {
+                offsets,
+                Arrays.copyOf(targets, edges) };
+    }
+
+    // the visitor that runs Tarjan's algorithm
+    private static class Tarjan implements DFS.Visitor
+    {
+        // order in which the nodes were reached, and the lowest order
+        // reachable from the subtree of each node through a single edge that
+        // leaves it
+        private final int[] order;
+        private final int[] low;
+
+        // the nodes reached whose component has not been found yet
+        private final int[] stack;
+        private int stackSize;
+        private final boolean[] onStack;
+
+        private final int[] component;
+        private int components;
+        private int reached;
+
+        Tarjan(int nodes)
+        {
+            order = new int[nodes];
+            low = new int[nodes];
+            stack = new int[nodes];
+            onStack = new boolean[nodes];
+            component = new int[nodes];
+        }
+
+        @Override
+        public boolean preOrder(int node, int parent)
+        {
+            order[node] = reached;
+            low[node] = reached;
+            reached++;
+
+            stack[stackSize++] = node;
+            onStack[node] = true;
+
+            return true;
+        }
+
+        @Override
+        public void markedEdge(int node, int adjacent)
+        {
+            // only nodes still on the stack can be part of the component of
+            // `node`, the others belong to components that are done
+            if (onStack[adjacent] && order[adjacent] < low[node])
+            {
+                low[node] = order[adjacent];
+            }
+        }
+
+        @Override
+        public void postOrder(int node, int parent)
+        {
+            // nothing in the subtree reaches above the node, so the node and
+            // everything above it on the stack form a component
+            if (low[node] == order[node])
+            {
+                int member;
+
+                do
+                {
+                    member = stack[--stackSize];
+                    onStack[member] = false;
+                    component[member] = components;
+                }
+                while (member != node);
+
+                components++;
+            }
+
+            if (parent >= 0 && low[node] < low[parent])
+            {
+                low[parent] = low[node];
+            }
+        }
+    }
+}
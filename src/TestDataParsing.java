@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/10/02
-    Updated: 2020/10/07
+    Updated: 2026/10/17
     Purpose:
         TestDataParsing.java parses data from selected formats into graphs of
         WeightedAdjacencyList.
@@ -24,16 +24,25 @@
             {tail} {head}
             where head and tail are Strings
 
+        Every format can also be parsed straight into a CompressedGraph
+        through the functions ending in `Compressed`.
+
+        For large files, `GraphLoader.java` reads the same formats from a
+        memory-mapped file and gives the same graphs many times faster.
+
     Usage:
         Import the class and use the static functions to parse data from
         selected formats.
 
-        Requires `WeightedAdjacencyList.java` to function.
+        Requires `WeightedAdjacencyList.java` and `CompressedGraph.java` to
+        function.
  */
 
 import java.util.Scanner;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
 import java.util.regex.Pattern;
 
 public class TestDataParsing
@@ -41,16 +50,74 @@ public class TestDataParsing
     public static WeightedAdjacencyList<Integer> numericWeightedNodes(
             Scanner data,
             int maxNodes)
+    {
+        // create new empty graph
+        WeightedAdjacencyList<Integer> graph =
+                new WeightedAdjacencyList<>();
+
+        return numericWeightedNodes(
+                data,
+                maxNodes,
+                graph,
+                WeightedAdjacencyList::nodes,
+                list -> tail -> head -> weight ->
+                {
+                    // if the the graph does not contain the node, add it
+                    if (!list.contains(tail))
+                    {
+                        list.addNode(tail);
+                    }
+
+                    if (!list.contains(head))
+                    {
+                        list.addNode(head);
+                    }
+
+                    // adds a bidirectional edge with weight as the cost
+                    list.addBiEdge(tail, head, weight, weight);
+                }
+        );
+    }
+
+    // same as `numericWeightedNodes` but the result is a CompressedGraph,
+    // built without any intermediate adjacency list
+    public static CompressedGraph<Integer> numericWeightedNodesCompressed(
+            Scanner data,
+            int maxNodes)
+    {
+        CompressedGraph.Builder<Integer> builder =
+                new CompressedGraph.Builder<>();
+
+        return numericWeightedNodes(
+                data,
+                maxNodes,
+                builder,
+                CompressedGraph.Builder::nodes,
+                list -> tail -> head -> weight ->
+                        list.addBiEdge(tail, head, weight, weight)
+        ).build();
+    }
+
+    // fills `graph` with the numeric weighted edges of the in data, using the
+    // appender to append the edges and `nodes` to count the nodes added
+    private static <Graph> Graph numericWeightedNodes(
+            Scanner data,
+            int maxNodes,
+            Graph graph,
+            ToIntFunction<Graph> nodes,
+            Function<
+                    Graph,
+                    Function<
+                            Integer,
+                            Function<
+                                    Integer,
+                                    IntConsumer>>> appender)
     {
         if (maxNodes < 0)
         {
             maxNodes = Integer.MAX_VALUE;
         }
 
-        // create new empty graph
-        WeightedAdjacencyList<Integer> graph =
-                new WeightedAdjacencyList<>();
-
         // save previous delimiter and use better one
         Pattern previousPattern = data.delimiter();
 
@@ -64,7 +131,7 @@ public class TestDataParsing
         data.useDelimiter("[\\s\\n]+");
 
         // go through each line of data
-        while (graph.nodes() < maxNodes && data.hasNext())
+        while (nodes.applyAsInt(graph) < maxNodes && data.hasNext())
         {
             // gets the first node which represents the tail of the edge, if
             // the edge is unidirectional
@@ -79,19 +146,12 @@ public class TestDataParsing
             int weight =
                     data.nextInt();
 
-            // if the the graph does not contain the node, add it
-            if (!graph.contains(tail))
-            {
-                graph.addNode(tail);
-            }
-
-            if (!graph.contains(head))
-            {
-                graph.addNode(head);
-            }
-
-            // adds a bidirectional edge with weight as the cost
-            graph.addBiEdge(tail, head, weight, weight);
+            // use the appender method to append the edge
+            appender
+                    .apply(graph)
+                    .apply(tail)
+                    .apply(head)
+                    .accept(weight);
 
             // in data is in directional format, so edges appear twice
             data.nextLine();
@@ -104,20 +164,17 @@ public class TestDataParsing
         return graph;
     }
 
-    // creates a graph represented by a weighted adjacency list using the in
-    // data and the appender to append the data items with a custom method
-    private static WeightedAdjacencyList<String> namedNodes(
+    // creates a graph using the in data and the appender to append the data
+    // items with a custom method, the appender also adds missing nodes
+    private static <Graph> Graph namedNodes(
             Scanner data,
+            Graph graph,
             Function<
-                    WeightedAdjacencyList<String>,
+                    Graph,
                     Function<
                             String,
                             Consumer<String>>> appender)
     {
-        // create new empty graph
-        WeightedAdjacencyList<String> graph =
-                new WeightedAdjacencyList<>();
-
         // save previous delimiter and use better one
         Pattern previousPattern = data.delimiter();
 
@@ -138,17 +195,6 @@ public class TestDataParsing
             String head =
                     data.next();
 
-            // if the the graph does not contain the node, add it
-            if (!graph.contains(tail))
-            {
-                graph.addNode(tail);
-            }
-
-            if (!graph.contains(head))
-            {
-                graph.addNode(head);
-            }
-
             // use the appender method to append the edge
             appender
                     .apply(graph)
@@ -162,14 +208,36 @@ public class TestDataParsing
         return graph;
     }
 
+    // adds the given nodes to the graph if it does not already contain them
+    private static void addMissing(
+            WeightedAdjacencyList<String> graph,
+            String tail,
+            String head)
+    {
+        // if the the graph does not contain the node, add it
+        if (!graph.contains(tail))
+        {
+            graph.addNode(tail);
+        }
+
+        if (!graph.contains(head))
+        {
+            graph.addNode(head);
+        }
+    }
+
     // returns a graph with bidirectional edges from the data input
     public static WeightedAdjacencyList<String> namedNodesBidirectional(
             Scanner data)
     {
         return namedNodes(
                 data,
+                new WeightedAdjacencyList<>(),
                 list -> tail -> head ->
-                        list.addBiEdge(tail, head)
+                {
+                    addMissing(list, tail, head);
+                    list.addBiEdge(tail, head);
+                }
         );
     }
 
@@ -179,8 +247,36 @@ public class TestDataParsing
     {
         return namedNodes(
                 data,
+                new WeightedAdjacencyList<>(),
                 list -> tail -> head ->
-                        list.addEdge(tail, head)
+                {
+                    addMissing(list, tail, head);
+                    list.addEdge(tail, head);
+                }
         );
     }
+
+    // same as `namedNodesBidirectional` but the result is a CompressedGraph
+    public static CompressedGraph<String> namedNodesBidirectionalCompressed(
+            Scanner data)
+    {
+        return namedNodes(
+                data,
+                new CompressedGraph.Builder<String>(),
+                list -> tail -> head ->
+                        list.addBiEdge(tail, head)
+        ).build();
+    }
+
+    // same as `namedNodesUnidirectional` but the result is a CompressedGraph
+    public static CompressedGraph<String> namedNodesUnidirectionalCompressed(
+            Scanner data)
+    {
+        return namedNodes(
+                data,
+                new CompressedGraph.Builder<String>(),
+                list -> tail -> head ->
+                        list.addEdge(tail, head)
+        ).build();
+    }
 }
@@ -0,0 +1,358 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/17
+    Updated: 2026/10/17
+    Purpose:
+        WaypointOrder.java finds the cheapest order to visit a set of
+        waypoints in, given the cost of going from every waypoint to every
+        other one. The first waypoint is always the start and the last one
+        always the end, the ones between them can be visited in any order.
+
+        Up to EXACT waypoints between the ends are ordered exactly, by the
+        Held-Karp dynamic program over the subsets of them, which takes time
+        in the order of 2^n * n^2. Beyond that the order starts out as the
+        nearest neighbour tour and is improved by 2-opt moves, reversing a
+        stretch of the tour, and Or-opt moves, moving a stretch of up to
+        OR_OPT waypoints elsewhere, until neither finds anything cheaper.
+
+        The costs do not have to be symmetric, so the moves account for the
+        cost of going through a reversed stretch backwards.
+    Usage:
+        Compute the costs, such as the distances of the shortest paths between
+        the waypoints, and order the waypoints:
+            int[] order = WaypointOrder.order(costs);
+        waypoint order[i] is the i:th to visit.
+
+        Requires `SearchContext.java` to function.
+ */
+
+import java.util.Arrays;
+
+public class WaypointOrder
+{
+    // the most waypoints between the ends that are ordered exactly
+    public static final int EXACT = 12;
+
+    // the longest stretch of waypoints an Or-opt move moves
+    private static final int OR_OPT = 3;
+
+    // the order to visit the waypoints in, given the cost `costs[i][j]` of
+    // going from waypoint i to waypoint j, which is `SearchContext.UNREACHED`
+    // if there is no path. waypoint 0 comes first and the last waypoint last
+    public static int[] order(long[][] costs)
+    {
+        long[][] cost = bounded(costs);
+        int waypoints = cost.length;
+
+        // nothing between the ends can be reordered
+        if (waypoints <= 3)
+        {
+            int[] order = new int[waypoints];
+            Arrays.setAll(order, i -> i);
+
+            return order;
+        }
+
+        if (waypoints - 2 <= EXACT)
+        {
+            return heldKarp(cost);
+        }
+
+        int[] order = nearestNeighbour(cost);
+
+        // a move that improves the order may open up another, so keep going
+        // until neither kind of move finds anything
+        boolean improved = true;
+
+        while (improved)
+        {
+            improved = twoOpt(cost, order) || orOpt(cost, order);
+        }
+
+        return order;
+    }
+
+    // the cost of visiting the waypoints in the given order,
+    // `SearchContext.UNREACHED` if some step has no path
+    public static long cost(long[][] costs, int[] order)
+    {
+        long total = 0;
+
+        for (int i = 0; i + 1 < order.length; i++)
+        {
+            long step = costs[order[i]][order[i + 1]];
+
+            if (step == SearchContext.UNREACHED)
+            {
+                return SearchContext.UNREACHED;
+            }
+
+            total += step;
+        }
+
+        return total;
+    }
+
+    // the shortest order by dynamic programming: the cheapest way to start
+    // at waypoint 0, visit a subset of the waypoints between the ends, and
+    // stop at one of them, is found from the subsets one smaller
+    private static int[] heldKarp(long[][] cost)
+    {
+        int last = cost.length - 1;
+        int between = last - 1;
+        int subsets = 1 << between;
+
+        // the cheapest cost of each subset, bit b being waypoint b + 1, when
+        // stopping at each of its waypoints, and the waypoint before that
+        long[] best = new long[subsets * between];
+        int[] before = new int[subsets * between];
+        Arrays.fill(best, Long.MAX_VALUE);
+
+        for (int b = 0; b < between; b++)
+        {
+            best[(1 << b) * between + b] = cost[0][b + 1];
+            before[(1 << b) * between + b] = -1;
+        }
+
+        for (int subset = 1; subset < subsets; subset++)
+        {
+            for (int b = 0; b < between; b++)
+            {
+                long current = best[subset * between + b];
+
+                if ((subset & 1 << b) == 0 || current == Long.MAX_VALUE)
+                {
+                    continue;
+                }
+
+                // extend the order by every waypoint not in the subset
+                for (int next = 0; next < between; next++)
+                {
+                    if ((subset & 1 << next) != 0)
+                    {
+                        continue;
+                    }
+
+                    int extended = (subset | 1 << next) * between + next;
+                    long candidate = current + cost[b + 1][next + 1];
+
+                    if (candidate < best[extended])
+                    {
+                        best[extended] = candidate;
+                        before[extended] = b;
+                    }
+                }
+            }
+        }
+
+        // close the order at the last waypoint
+        int all = subsets - 1;
+        int end = 0;
+
+        for (int b = 1; b < between; b++)
+        {
+            if (best[all * between + b] + cost[b + 1][last]
+                    < best[all * between + end] + cost[end + 1][last])
+            {
+                end = b;
+            }
+        }
+
+        // follow the waypoints before the end back to the start
+        int[] order = new int[cost.length];
+        order[last] = last;
+
+        for (int position = between, subset = all, b = end; b >= 0;
+             position--)
+        {
+            order[position] = b + 1;
+
+            int previous = before[subset * between + b];
+            subset &= ~(1 << b);
+            b = previous;
+        }
+
+        return order;
+    }
+
+    // the order found by always going to the closest waypoint not visited
+    // yet, ending at the last waypoint
+    private static int[] nearestNeighbour(long[][] cost)
+    {
+        int last = cost.length - 1;
+        boolean[] visited = new boolean[cost.length];
+
+        int[] order = new int[cost.length];
+        order[last] = last;
+
+        for (int position = 1; position < last; position++)
+        {
+            int from = order[position - 1];
+            int closest = -1;
+
+            for (int next = 1; next < last; next++)
+            {
+                if (visited[next])
+                {
+                    continue;
+                }
+
+                if (closest < 0 || cost[from][next] < cost[from][closest])
+                {
+                    closest = next;
+                }
+            }
+
+            visited[closest] = true;
+            order[position] = closest;
+        }
+
+        return order;
+    }
+
+    // reverses the first stretch of the order found whose reversal makes it
+    // cheaper, returns false if there is none
+    private static boolean twoOpt(long[][] cost, int[] order)
+    {
+        int last = order.length - 1;
+
+        // the cost of the order up to each position, forwards and backwards,
+        // so that the cost of a stretch in either direction is a subtraction
+        long[] forwards = new long[order.length];
+        long[] backwards = new long[order.length];
+
+        for (int i = 1; i < order.length; i++)
+        {
+            forwards[i] = forwards[i - 1] + cost[order[i - 1]][order[i]];
+            backwards[i] = backwards[i - 1] + cost[order[i]][order[i - 1]];
+        }
+
+        for (int i = 1; i < last; i++)
+        {
+            for (int j = i + 1; j < last; j++)
+            {
+                int previous = order[i - 1];
+                int next = order[j + 1];
+
+                long delta =
+                        cost[previous][order[j]]
+                        + cost[order[i]][next]
+                        - cost[previous][order[i]]
+                        - cost[order[j]][next]
+                        + (backwards[j] - backwards[i])
+                        - (forwards[j] - forwards[i]);
+
+                if (delta < 0)
+                {
+                    for (int a = i, b = j; a < b; a++, b--)
+                    {
+                        int swap = order[a];
+                        order[a] = order[b];
+                        order[b] = swap;
+                    }
+
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // moves the first stretch of up to OR_OPT waypoints found that makes the
+    // order cheaper somewhere else, returns false if there is none
+    private static boolean orOpt(long[][] cost, int[] order)
+    {
+        int last = order.length - 1;
+
+        for (int length = 1; length <= OR_OPT; length++)
+        {
+            for (int i = 1; i + length <= last; i++)
+            {
+                int first = order[i];
+                int end = order[i + length - 1];
+                int previous = order[i - 1];
+                int next = order[i + length];
+
+                long removed =
+                        cost[previous][next]
+                        - cost[previous][first]
+                        - cost[end][next];
+
+                // put the stretch between order[j] and order[j + 1]
+                for (int j = 0; j < last; j++)
+                {
+                    if (j >= i - 1 && j < i + length)
+                    {
+                        continue;
+                    }
+
+                    long delta =
+                            removed
+                            + cost[order[j]][first]
+                            + cost[end][order[j + 1]]
+                            - cost[order[j]][order[j + 1]];
+
+                    if (delta < 0)
+                    {
+                        move(order, i, length, j);
+
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // moves the `length` waypoints from position `from` to after position
+    // `after`, which is outside of them
+    private static void move(int[] order, int from, int length, int after)
+    {
+        int[] stretch = Arrays.copyOfRange(order, from, from + length);
+
+        if (after < from)
+        {
+            // shift the waypoints after `after` forwards over the stretch
+            System.arraycopy(
+                    order,
+                    after + 1,
+                    order,
+                    after + 1 + length,
+                    from - after - 1);
+            System.arraycopy(stretch, 0, order, after + 1, length);
+        }
+        else
+        {
+            // shift the waypoints up to `after` backwards over the stretch
+            System.arraycopy(
+                    order,
+                    from + length,
+                    order,
+                    from,
+                    after - from - length + 1);
+            System.arraycopy(stretch, 0, order, after - length + 1, length);
+        }
+    }
+
+    // the costs with missing paths made large, but small enough that adding
+    // up every cost of an order can not overflow
+    private static long[][] bounded(long[][] costs)
+    {
+        long infinity = Long.MAX_VALUE / (4L * (costs.length + 1));
+        long[][] cost = new long[costs.length][];
+
+        for (int i = 0; i < costs.length; i++)
+        {
+            cost[i] = new long[costs[i].length];
+
+            for (int j = 0; j < costs[i].length; j++)
+            {
+                cost[i][j] = Math.min(costs[i][j], infinity);
+            }
+        }
+
+        return cost;
+    }
+}
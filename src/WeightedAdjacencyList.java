@@ -1,106 +1,244 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/09/30
-    Updated: 2020/10/06
+    Updated: 2026/10/17
     Purpose:
         WeightedAdjacencyList.java is a adjacency list that supports actions
         for undirected, directed, and weighted graphs.
     Usage:
         Import as a class to use the structure or execute the main function to
         test the structure
+
+        The keys are given their `Node.index` by a KeyDictionary as they are
+        added, so the algorithms can mark and compare nodes by that index
+        instead of hashing and comparing keys.
+
+        Every edge is also kept in an EdgeSet, so `containsEdge` does not
+        scan the adjacency list of the tail, and an edge that is already in
+        the graph is not added again. Adding it again only lowers its weight,
+        if the new weight is smaller, and `addEdge` returns false.
+
+        Requires `Node.java`, `KeyValuePair.java`, `KeyDictionary.java`, and
+        `EdgeSet.java` to function.
  */
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class WeightedAdjacencyList<Key> implements Iterable<Key>
 {
-    private final HashMap<Key, Node<Key>> adjacencyList;
+    // the `Node.index` of every key, which is also its position in
+    // `indexed`, the nodes in the order they were added
+    private final KeyDictionary<Key> ids;
+    private final ArrayList<Node<Key>> indexed;
+
+    // the edges by the `Node.index` of their tail and head
+    private final EdgeSet edgeSet;
 
     private int edges;
     private int nodes;
 
+    // incremented every time a node or edge is added, so that structures
+    // built from the graph can tell that they are out of date. volatile so
+    // that threads reading the graph see the changes of the thread writing
+    // it, there must only be one writer
+    private volatile int version;
+
+    // set once an edge is added in one direction only
+    private boolean directed;
+
+    // structures built from the graph by other classes, such as indexes,
+    // which live as long as the graph does
+    private final ConcurrentHashMap<Object, Object> attached;
+
     public int edges() { return edges; }
     public int nodes() { return nodes; }
+    public int version() { return version; }
+
+    // checks if any edge was added through `addEdge` rather than `addBiEdge`,
+    // otherwise every edge has a counterpart in the other direction
+    public boolean isDirected() { return directed; }
 
     public WeightedAdjacencyList()
     {
-        adjacencyList = new HashMap<>();
+        this(16);
+    }
+
+    // pre-sizes the graph for the expected amount of nodes, the edges are
+    // left to grow
+    public WeightedAdjacencyList(int expectedNodes)
+    {
+        this(expectedNodes, 0);
+    }
+
+    // pre-sizes the graph for the expected amount of nodes and of edges,
+    // counting both directions of a bidirectional edge
+    public WeightedAdjacencyList(int expectedNodes, int expectedEdges)
+    {
+        ids = new KeyDictionary<>(expectedNodes);
+        indexed = new ArrayList<>(Math.max(16, expectedNodes));
+        edgeSet = new EdgeSet(expectedEdges);
+        attached = new ConcurrentHashMap<>();
+    }
+
+    // the structure attached to the graph under `name`, created by `create`
+    // the first time it is asked for. the structure itself must check
+    // `version` if it needs to follow changes to the graph
+    @SuppressWarnings("unchecked")
+    public <T> T attached(
+            Object name,
+            Function<WeightedAdjacencyList<Key>, T> create)
+    {
+        return (T) attached.computeIfAbsent(name, key -> create.apply(this));
     }
 
     // retrieves the node with meta with the given identifier
     public Node<Key> node(Key node)
     {
-        return adjacencyList.get(node);
+        int id = ids.id(node);
+
+        return id < 0 ? null : indexed.get(id);
     }
 
-    // add the node to the graph
+    // retrieves the node with the given `Node.index`
+    public Node<Key> nodeAt(int index)
+    {
+        return indexed.get(index);
+    }
+
+    // add the node to the graph, unless it already is in the graph
     public void addNode(Key node)
     {
+        if (ids.id(node) >= 0)
+        {
+            return;
+        }
+
         Node<Key> nodeReference =
                 new Node<>();
 
         nodeReference.identifier = node;
+        nodeReference.index = nodes;
         nodeReference.adjacent =
                 new LinkedList<>();
 
-        adjacencyList.put(node, nodeReference);
+        ids.add(node);
+        indexed.add(nodeReference);
 
         nodes++;
+        version++;
     }
 
-    // adds a unidirectional edge from node a to node b, with the given weight
-    public void addEdge(
+    // adds a unidirectional edge from node a to node b, with the given
+    // weight. returns false if the edge was already in the graph, in which
+    // case it keeps the smaller of its weights
+    public boolean addEdge(
             Key a,
             Key b,
             int weight)
     {
+        if (!append(a, b, weight))
+        {
+            return false;
+        }
+
+        directed = true;
+
+        return true;
+    }
+
+    // adds the edge from node a to node b to the adjacency list of node a,
+    // unless it is already there
+    private boolean append(
+            Key a,
+            Key b,
+            int weight)
+    {
+        Node<Key> tail = node(a);
+        Node<Key> head = node(b);
+
+        if (!edgeSet.add(tail.index, head.index))
+        {
+            lower(tail, head, weight);
+
+            return false;
+        }
+
         KeyValuePair<Node<Key>, Integer> nodeAndEdge
-                = new KeyValuePair<>(node(b), weight);
+                = new KeyValuePair<>(head, weight);
 
-        // get node a and add node b as its adjacent
-        adjacencyList
-                .get(a)
+        // add node b as adjacent of node a
+        tail
                 .adjacent
                     .add(nodeAndEdge);
 
         edges++;
+        version++;
+
+        return true;
+    }
+
+    // lowers the weight of the existing edge from `tail` to `head` to
+    // `weight`, if that is smaller. only duplicate edges pay for the scan
+    private void lower(
+            Node<Key> tail,
+            Node<Key> head,
+            int weight)
+    {
+        for (KeyValuePair<Node<Key>, Integer> nodeAndWeight : tail.adjacent)
+        {
+            if (nodeAndWeight.Key == head)
+            {
+                if (weight < nodeAndWeight.Value)
+                {
+                    nodeAndWeight.Value = weight;
+                    version++;
+                }
+
+                return;
+            }
+        }
     }
 
     // adds a unidirectional edge from node a to node b, with no weight
-    public void addEdge(
+    public boolean addEdge(
             Key a,
             Key b)
     {
-        addEdge(a, b,0);
+        return addEdge(a, b,0);
     }
 
     // adds a bidirectional wedge between A and B, with the weights from A to
-    // B and B to A, respectively
-    public void addBiEdge(
+    // B and B to A, respectively. returns false if both directions were
+    // already in the graph
+    public boolean addBiEdge(
             Key a,
             Key b,
             int weightAB,
             int weightBA)
     {
-        addEdge(a, b, weightAB);
-        addEdge(b, a, weightBA);
+        boolean addedAB = append(a, b, weightAB);
+        boolean addedBA = append(b, a, weightBA);
+
+        return addedAB || addedBA;
     }
 
     // adds a bidirectional wedge between A and B, with no weights in between
-    public void addBiEdge(
+    public boolean addBiEdge(
             Key a,
             Key b)
     {
-        addBiEdge(a, b, 0, 0);
+        return addBiEdge(a, b, 0, 0);
     }
 
     // checks if the specified node is contained within the graph
     public boolean contains(
             Key node)
     {
-        return adjacencyList.containsKey(node);
+        return ids.contains(node);
     }
 
     // checks if given (unidirectional) edge is contained within the graph
@@ -108,27 +246,25 @@ public class WeightedAdjacencyList<Key> implements Iterable<Key>
             Key tail,
             Key head)
     {
-        // go through the list of adjacents for the given tail and check
-        // if one of them is the given head
-        for (KeyValuePair<Node<Key>, Integer> nodeAndWeight
-                : adjacencyList.get(tail).adjacent)
-        {
-            if (nodeAndWeight
-                    .Key
-                    .identifier
-                    .equals(head))
-            {
-                return true;
-            }
-        }
+        int from = ids.id(tail);
+        int to = ids.id(head);
 
-        return false;
+        return from >= 0 && to >= 0 && edgeSet.contains(from, to);
     }
 
-    // returns an iterator over the nodes
+    // returns an iterator over the nodes, in the order they were added
     @Override
     public Iterator<Key> iterator()
     {
-        return adjacencyList.keySet().iterator();
+        Iterator<Node<Key>> nodes = indexed.iterator();
+
+        return new Iterator<>()
+        {
+            @Override
+            public boolean hasNext() { return nodes.hasNext(); }
+
+            @Override
+            public Key next() { return nodes.next().identifier; }
+        };
     }
 }